@@ -0,0 +1,100 @@
+package com.rits.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.utils.CharMatcher;
+
+/**
+ * the CharMatcher text operations on a text of words separated by runs of whitespace and
+ * sprinkled with digits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CharMatcherBenchmark {
+	@Param({"64", "4096"})
+	public int length;
+
+	private String text;
+	private CharMatcher whitespace;
+	private CharMatcher digit;
+	private CharMatcher anyOf;
+	private CharMatcher letterOrDigit;
+	private CharMatcher range;
+
+	@Setup
+	public void setUp() {
+		final Random random = new Random(42);
+		final StringBuilder sb = new StringBuilder(length);
+		sb.append("  ");
+		while (sb.length() < length - 2) {
+			final int r = random.nextInt(10);
+			if (r < 2) sb.append(" \t ".substring(0, 1 + random.nextInt(3)));
+			else if (r < 3) sb.append((char) ('0' + random.nextInt(10)));
+			else sb.append((char) ('a' + random.nextInt(26)));
+		}
+		sb.append(" \n");
+		text = sb.toString();
+		whitespace = CharMatcher.whitespace();
+		digit = CharMatcher.inRange('0', '9');
+		anyOf = CharMatcher.anyOf("aeiou");
+		letterOrDigit = CharMatcher.inRange('a', 'z').or(digit);
+		range = CharMatcher.inRange('a', 'f');
+	}
+
+	@Benchmark
+	public String trimAndCollapseWhitespace() {
+		return whitespace.trimAndCollapseFrom(text, ' ');
+	}
+
+	@Benchmark
+	public String trimWhitespace() {
+		return whitespace.trimFrom(text);
+	}
+
+	@Benchmark
+	public String removeDigits() {
+		return digit.removeFrom(text);
+	}
+
+	@Benchmark
+	public String retainLettersAndDigits() {
+		return letterOrDigit.retainFrom(text);
+	}
+
+	@Benchmark
+	public String replaceVowels() {
+		return anyOf.replaceFrom(text, '*');
+	}
+
+	@Benchmark
+	public int countInRange() {
+		return range.countIn(text);
+	}
+
+	@Benchmark
+	public boolean matchesAllOf() {
+		return letterOrDigit.or(whitespace).matchesAllOf(text);
+	}
+
+	@Benchmark
+	public int indexOfDigit() {
+		return digit.indexIn(text);
+	}
+}
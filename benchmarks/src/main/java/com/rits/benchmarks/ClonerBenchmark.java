@@ -0,0 +1,78 @@
+package com.rits.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rits.cloning.Cloner;
+
+/**
+ * deepClone and shallowClone of the graphs in Graphs: a single bean, an object of primitives,
+ * a list of beans sharing objects and a tree with cycles.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {
+		"--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/java.util=ALL-UNNAMED",
+		"--add-opens=java.base/java.math=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class ClonerBenchmark {
+	private Cloner cloner;
+	private Graphs.Person person;
+	private Graphs.Numbers numbers;
+	private List<Graphs.Person> people;
+	private Graphs.Node tree;
+
+	@Setup
+	public void setUp() {
+		cloner = new Cloner();
+		person = Graphs.person(1);
+		person.manager = Graphs.person(2);
+		numbers = new Graphs.Numbers();
+		people = Graphs.people(1000);
+		tree = Graphs.tree(10);
+	}
+
+	@Benchmark
+	public Object deepClonePerson() {
+		return cloner.deepClone(person);
+	}
+
+	@Benchmark
+	public Object deepCloneNumbers() {
+		return cloner.deepClone(numbers);
+	}
+
+	@Benchmark
+	public Object deepClonePeople() {
+		return cloner.deepClone(people);
+	}
+
+	@Benchmark
+	public Object deepCloneTree() {
+		return cloner.deepClone(tree);
+	}
+
+	@Benchmark
+	public Object shallowClonePerson() {
+		return cloner.shallowClone(person);
+	}
+
+	@Benchmark
+	public Object shallowCloneNumbers() {
+		return cloner.shallowClone(numbers);
+	}
+}
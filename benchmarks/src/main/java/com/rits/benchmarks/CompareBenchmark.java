@@ -0,0 +1,67 @@
+package com.rits.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rits.compare.Compare;
+
+/**
+ * Compare.compare of two equal but distinct beans, of two beans that differ in a few fields and
+ * of beans of different classes.
+ *
+ * NOTE: Compare.compare looks its cache up with ConcurrentHashMap.contains, which checks the values,
+ * not the keys, so beans of the same class are never compared and it returns the (null) cached report.
+ * Until that is fixed equalBeans and differentBeans both measure that lookup, not the comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {
+		"--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/java.util=ALL-UNNAMED",
+		"--add-opens=java.base/java.math=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class CompareBenchmark {
+	private Compare compare;
+	private Graphs.Person person;
+	private Graphs.Person same;
+	private Graphs.Person different;
+	private Graphs.Address address;
+
+	@Setup
+	public void setUp() {
+		compare = new Compare();
+		person = Graphs.person(1);
+		same = Graphs.person(1);
+		different = Graphs.person(1);
+		different.age++;
+		different.address.city = "elsewhere";
+		address = new Graphs.Address();
+	}
+
+	@Benchmark
+	public Object equalBeans() {
+		return compare.compare(person, same);
+	}
+
+	@Benchmark
+	public Object differentBeans() {
+		return compare.compare(person, different);
+	}
+
+	@Benchmark
+	public Object differentClasses() {
+		return compare.compare(person, address);
+	}
+}
@@ -0,0 +1,123 @@
+package com.rits.benchmarks;
+
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rits.cloning.Cloner;
+
+/**
+ * deepClone of the collections the Cloner registers a FastCloner for, once with immutable
+ * elements (where the cost is the collection itself) and once with beans (where the elements
+ * are cloned too).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {
+		"--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/java.util=ALL-UNNAMED",
+		"--add-opens=java.base/java.util.concurrent=ALL-UNNAMED",
+		"--add-opens=java.base/java.math=ALL-UNNAMED",
+		"--add-opens=java.base/sun.util.calendar=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class FastClonerBenchmark {
+	@Param({"10", "1000"})
+	public int size;
+
+	@Param({"strings", "beans"})
+	public String elements;
+
+	private Cloner cloner;
+	private ArrayList<Object> arrayList;
+	private LinkedList<Object> linkedList;
+	private HashSet<Object> hashSet;
+	private HashMap<String, Object> hashMap;
+	private TreeMap<String, Object> treeMap;
+	private LinkedHashMap<String, Object> linkedHashMap;
+	private ConcurrentHashMap<String, Object> concurrentHashMap;
+	private GregorianCalendar calendar;
+
+	@Setup
+	public void setUp() {
+		cloner = new Cloner();
+		arrayList = new ArrayList<Object>();
+		linkedList = new LinkedList<Object>();
+		hashSet = new HashSet<Object>();
+		hashMap = new HashMap<String, Object>();
+		treeMap = new TreeMap<String, Object>();
+		linkedHashMap = new LinkedHashMap<String, Object>();
+		concurrentHashMap = new ConcurrentHashMap<String, Object>();
+		for (int i = 0; i < size; i++) {
+			final String key = "key" + i;
+			final Object value = "strings".equals(elements) ? "value" + i : Graphs.person(i);
+			arrayList.add(value);
+			linkedList.add(value);
+			hashSet.add(value);
+			hashMap.put(key, value);
+			treeMap.put(key, value);
+			linkedHashMap.put(key, value);
+			concurrentHashMap.put(key, value);
+		}
+		calendar = new GregorianCalendar(2018, 5, 21);
+	}
+
+	@Benchmark
+	public Object arrayList() {
+		return cloner.deepClone(arrayList);
+	}
+
+	@Benchmark
+	public Object linkedList() {
+		return cloner.deepClone(linkedList);
+	}
+
+	@Benchmark
+	public Object hashSet() {
+		return cloner.deepClone(hashSet);
+	}
+
+	@Benchmark
+	public Object hashMap() {
+		return cloner.deepClone(hashMap);
+	}
+
+	@Benchmark
+	public Object treeMap() {
+		return cloner.deepClone(treeMap);
+	}
+
+	@Benchmark
+	public Object linkedHashMap() {
+		return cloner.deepClone(linkedHashMap);
+	}
+
+	@Benchmark
+	public Object concurrentHashMap() {
+		return cloner.deepClone(concurrentHashMap);
+	}
+
+	@Benchmark
+	public Object calendar() {
+		return cloner.deepClone(calendar);
+	}
+}
@@ -0,0 +1,113 @@
+package com.rits.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the object graphs the benchmarks clone and compare. They are built with a fixed seed so that
+ * results are comparable between runs and releases.
+ */
+final class Graphs {
+	private Graphs() {
+	}
+
+	static class Address {
+		String street;
+		String city;
+		int number;
+	}
+
+	static class Person {
+		long id;
+		String name;
+		int age;
+		boolean active;
+		double score;
+		Date created;
+		Address address;
+		List<String> tags;
+		Map<String, BigDecimal> balances;
+		Person manager;
+	}
+
+	/**
+	 * mostly primitives, where the cost is the field copying
+	 */
+	static class Numbers {
+		int i1 = 1001, i2 = 1002, i3 = 1003, i4 = 1004, i5 = 1005, i6 = 1006;
+		long l1 = 2001, l2 = 2002, l3 = 2003, l4 = 2004, l5 = 2005, l6 = 2006;
+		double d1 = 1.1, d2 = 2.2, d3 = 3.3, d4 = 4.4, d5 = 5.5, d6 = 6.6;
+		float f1 = 1.5f, f2 = 2.5f;
+		short s1 = 300;
+		char c1 = 'x';
+		byte b1 = 7;
+		boolean z1 = true;
+		String name = "numbers";
+	}
+
+	static class Node {
+		int value;
+		Node left;
+		Node right;
+		Node parent;
+		Object[] payload;
+	}
+
+	static Person person(final int id) {
+		final Person p = new Person();
+		p.id = id;
+		p.name = "person " + id;
+		p.age = 20 + id % 50;
+		p.active = id % 3 != 0;
+		p.score = id * 0.25;
+		p.created = new Date(1500000000000L + id * 1000L);
+		p.address = new Address();
+		p.address.street = "street " + id % 100;
+		p.address.city = "city " + id % 10;
+		p.address.number = id;
+		p.tags = new ArrayList<String>();
+		for (int i = 0; i < 4; i++) {
+			p.tags.add("tag" + (id + i) % 20);
+		}
+		p.balances = new HashMap<String, BigDecimal>();
+		p.balances.put("eur", BigDecimal.valueOf(id, 2));
+		p.balances.put("gbp", BigDecimal.valueOf(id * 2L, 2));
+		return p;
+	}
+
+	/**
+	 * people sharing managers, so the clone has to track identities
+	 */
+	static List<Person> people(final int size) {
+		final List<Person> l = new ArrayList<Person>(size);
+		for (int i = 0; i < size; i++) {
+			final Person p = person(i);
+			if (i >= 10) p.manager = l.get(i % 10);
+			l.add(p);
+		}
+		return l;
+	}
+
+	/**
+	 * a balanced binary tree with back references to the parents
+	 */
+	static Node tree(final int depth) {
+		return tree(depth, null, new int[1]);
+	}
+
+	private static Node tree(final int depth, final Node parent, final int[] counter) {
+		final Node n = new Node();
+		n.value = counter[0]++;
+		n.parent = parent;
+		n.payload = new Object[]{n.value, "node" + n.value, parent};
+		if (depth > 1) {
+			n.left = tree(depth - 1, n, counter);
+			n.right = tree(depth - 1, n, counter);
+		}
+		return n;
+	}
+}
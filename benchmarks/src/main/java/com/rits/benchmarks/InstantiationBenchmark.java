@@ -0,0 +1,75 @@
+package com.rits.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.ConstructorInstantiationStrategy;
+import com.rits.cloning.ObjenesisInstantiationStrategy;
+
+/**
+ * the instantiation strategies: objenesis' name keyed cache (what ObjenesisInstantiationStrategy used
+ * to call for every object), the per class cached instantiators and the no-arg constructors, alone and
+ * as part of a deepClone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {
+		"--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/java.util=ALL-UNNAMED",
+		"--add-opens=java.base/java.math=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class InstantiationBenchmark {
+	private final Objenesis objenesis = new ObjenesisStd();
+	private final ObjenesisInstantiationStrategy cached = new ObjenesisInstantiationStrategy();
+	private final ConstructorInstantiationStrategy constructors = new ConstructorInstantiationStrategy();
+	private Cloner objenesisCloner;
+	private Cloner constructorCloner;
+	private Graphs.Node tree;
+
+	@Setup
+	public void setUp() {
+		objenesisCloner = new Cloner(cached);
+		constructorCloner = new Cloner(constructors);
+		tree = Graphs.tree(10);
+	}
+
+	@Benchmark
+	public Object objenesisByName() {
+		return objenesis.newInstance(Graphs.Address.class);
+	}
+
+	@Benchmark
+	public Object cachedInstantiator() {
+		return cached.newInstance(Graphs.Address.class);
+	}
+
+	@Benchmark
+	public Object constructor() {
+		return constructors.newInstance(Graphs.Address.class);
+	}
+
+	@Benchmark
+	public Object deepCloneTreeWithObjenesis() {
+		return objenesisCloner.deepClone(tree);
+	}
+
+	@Benchmark
+	public Object deepCloneTreeWithConstructors() {
+		return constructorCloner.deepClone(tree);
+	}
+}
@@ -0,0 +1,121 @@
+package com.rits.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stream.utils.impl.MapStream;
+import com.stream.utils.impl.Streams;
+
+/**
+ * Streams.zip, mapWithIndex and findLast and a few MapStream pipelines over sized and unsized
+ * sources, since the sized ones take a different path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class StreamsBenchmark {
+	@Param({"100", "10000"})
+	public int size;
+
+	private List<String> strings;
+	private List<Integer> integers;
+	private Set<String> unsized;
+	private Map<String, Integer> map;
+
+	@Setup
+	public void setUp() {
+		strings = new ArrayList<String>(size);
+		integers = new ArrayList<Integer>(size);
+		unsized = new LinkedHashSet<String>();
+		map = new HashMap<String, Integer>();
+		for (int i = 0; i < size; i++) {
+			strings.add("s" + i);
+			integers.add(i);
+			unsized.add("s" + i);
+			map.put("k" + i, i);
+		}
+	}
+
+	@Benchmark
+	public List<String> zip() {
+		return Streams.zip(strings.stream(), integers.stream(), (s, i) -> s + i).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> mapWithIndex() {
+		return Streams.mapWithIndex(strings.stream(), (s, index) -> index + s).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> mapWithIndexUnsized() {
+		return Streams.mapWithIndex(unsized.stream().filter(s -> s.length() > 2), (s, index) -> index + s)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> mapWithIndexIntStream() {
+		return Streams.mapWithIndex(IntStream.range(0, size), (i, index) -> "s" + (i + index)).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Optional<String> findLast() {
+		return Streams.findLast(strings.stream());
+	}
+
+	@Benchmark
+	public Optional<String> findLastFiltered() {
+		return Streams.findLast(strings.stream().filter(s -> s.endsWith("7")));
+	}
+
+	@Benchmark
+	public OptionalInt findLastIntStream() {
+		return Streams.findLast(IntStream.range(0, size));
+	}
+
+	@Benchmark
+	public Map<String, Integer> mapStreamFilterAndMapValues() {
+		return MapStream.of(map)
+				.filterValues(v -> v % 2 == 0)
+				.mapValues(v -> v * 3)
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	@Benchmark
+	public List<String> mapStreamSortedKeys() {
+		return MapStream.of(map)
+				.filter((k, v) -> v > size / 2)
+				.sortedKeys()
+				.map((k, v) -> k + "=" + v)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Map<Integer, String> mapStreamZipWithIndex() {
+		return MapStream.zipWithIndex(strings.stream())
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+}
@@ -0,0 +1,268 @@
+package com.rits.cloning.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * generates an ITypedFastCloner for each class annotated with @GenerateCloner and lists them in
+ * META-INF/services/com.rits.cloning.ITypedFastCloner, so that every Cloner registers them.
+ *
+ * The generated cloner lives in the package of the class, named after it i.e. PersonFastCloner. It
+ * instantiates the class with its no-arg constructor, registers the clone before cloning the fields (so
+ * cycles are cloned as cycles), copies primitive fields and deep clones the rest via the IDeepCloner.
+ * Fields are read and written directly when the generated class can access them, otherwise via their
+ * getters and setters. Static fields are skipped, final fields and private fields without accessors
+ * are reported as errors.
+ */
+@SupportedAnnotationTypes(GenerateClonerProcessor.GENERATE_CLONER)
+public class GenerateClonerProcessor extends AbstractProcessor
+{
+	static final String GENERATE_CLONER = "com.rits.cloning.GenerateCloner";
+	static final String SERVICES = "META-INF/services/com.rits.cloning.ITypedFastCloner";
+
+	/**
+	 * the cloners generated in all rounds
+	 */
+	private final Set<String> generated = new TreeSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		for (final TypeElement annotation : annotations) {
+			for (final Element e : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (validType(e)) generate((TypeElement) e);
+			}
+		}
+		if (roundEnv.processingOver() && !generated.isEmpty()) writeServices();
+		return true;
+	}
+
+	private boolean validType(final Element e) {
+		if (e.getKind() != ElementKind.CLASS) return error(e, "@GenerateCloner is only supported on classes");
+		final Set<Modifier> modifiers = e.getModifiers();
+		if (modifiers.contains(Modifier.ABSTRACT)) return error(e, "@GenerateCloner classes can't be abstract");
+		for (Element t = e; t.getKind().isClass(); t = t.getEnclosingElement()) {
+			if (t.getModifiers().contains(Modifier.PRIVATE)) return error(e, "@GenerateCloner classes can't be private");
+			if (t.getEnclosingElement().getKind().isClass() && !t.getModifiers().contains(Modifier.STATIC)) {
+				return error(e, "@GenerateCloner inner classes must be static");
+			}
+		}
+		for (final ExecutableElement c : ElementFilter.constructorsIn(e.getEnclosedElements())) {
+			if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) return true;
+		}
+		return error(e, "@GenerateCloner classes need a non private no-arg constructor");
+	}
+
+	private void generate(final TypeElement type) {
+		final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		final String typeName = rawName(type);
+		final String clonerName = flatName(type) + "FastCloner";
+		final List<String> copies = new ArrayList<String>();
+		boolean valid = true;
+		for (TypeElement t = type; t != null; t = superclass(t)) {
+			for (final VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+				if (field.getModifiers().contains(Modifier.STATIC)) continue;
+				final String copy = copy(type, t, field, packageName);
+				if (copy == null) valid = false;
+				else copies.add(copy);
+			}
+		}
+		if (!valid) return;
+
+		final String qualifiedName = packageName.isEmpty() ? clonerName : packageName + "." + clonerName;
+		try {
+			final Writer w = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+			final PrintWriter out = new PrintWriter(w);
+			try {
+				if (!packageName.isEmpty()) {
+					out.println("package " + packageName + ";");
+					out.println();
+				}
+				out.println("/**");
+				out.println(" * generated by " + getClass().getName() + " for " + typeName + ", do not edit");
+				out.println(" */");
+				out.println("public final class " + clonerName + " implements com.rits.cloning.ITypedFastCloner {");
+				out.println("\tpublic Class<?> type() {");
+				out.println("\t\treturn " + typeName + ".class;");
+				out.println("\t}");
+				out.println();
+				out.println("\t@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+				out.println("\tpublic Object clone(final Object t, final com.rits.cloning.IDeepCloner cloner, final java.util.Map<Object, Object> clones) {");
+				out.println("\t\tfinal " + typeName + " o = (" + typeName + ") t;");
+				out.println("\t\tfinal " + typeName + " c = new " + typeName + "();");
+				out.println("\t\tif (clones != null) {");
+				out.println("\t\t\tfinal Object previous = clones.putIfAbsent(t, c);");
+				out.println("\t\t\tif (previous != null) return previous;");
+				out.println("\t\t}");
+				for (final String copy : copies) {
+					out.println("\t\t" + copy);
+				}
+				out.println("\t\treturn c;");
+				out.println("\t}");
+				out.println("}");
+			} finally {
+				out.close();
+			}
+			generated.add(qualifiedName);
+		} catch (final IOException e) {
+			error(type, "can't generate " + qualifiedName + ": " + e);
+		}
+	}
+
+	/**
+	 * @return the statement that copies or clones field of o into c, null if the field can't be copied
+	 */
+	private String copy(final TypeElement type, final TypeElement declaring, final VariableElement field, final String packageName) {
+		if (field.getModifiers().contains(Modifier.FINAL)) {
+			error(field, "@GenerateCloner doesn't support final fields, " + field + " of " + declaring + " is final");
+			return null;
+		}
+		final boolean primitive = field.asType().getKind().isPrimitive();
+		final String name = field.getSimpleName().toString();
+		if (accessible(field, declaring, packageName)) {
+			// cast to the declaring class, the field might be hidden by one of a subclass
+			final String src = (declaring == type ? "o" : "((" + rawName(declaring) + ") o)") + "." + name;
+			final String dest = (declaring == type ? "c" : "((" + rawName(declaring) + ") c)") + "." + name;
+			return dest + " = " + (primitive ? src : "cloner.deepClone(" + src + ", clones)") + ";";
+		}
+		final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		final boolean isBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+		final ExecutableElement getter = accessor(type, field, isBoolean ? "is" + capitalized : "get" + capitalized, packageName);
+		final ExecutableElement setter = accessor(type, field, "set" + capitalized, packageName);
+		if (getter == null || setter == null) {
+			error(field, "@GenerateCloner can't access " + field + " of " + declaring
+					+ ", make it non private or add a getter and a setter");
+			return null;
+		}
+		final String src = "o." + getter.getSimpleName() + "()";
+		return "c." + setter.getSimpleName() + "(" + (primitive ? src : "cloner.deepClone(" + src + ", clones)") + ");";
+	}
+
+	/**
+	 * @return the accessible getter (no parameters) or setter (one parameter of the field's type) of field
+	 */
+	private ExecutableElement accessor(final TypeElement type, final VariableElement field, final String name, final String packageName) {
+		final boolean setter = name.startsWith("set");
+		for (final ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			if (!m.getSimpleName().contentEquals(name) || m.getModifiers().contains(Modifier.STATIC)) continue;
+			if (!accessible(m, (TypeElement) m.getEnclosingElement(), packageName)) continue;
+			if (setter && m.getParameters().size() == 1
+					&& processingEnv.getTypeUtils().isSameType(erasure(m.getParameters().get(0).asType()), erasure(field.asType()))) return m;
+			if (!setter && m.getParameters().isEmpty()
+					&& processingEnv.getTypeUtils().isAssignable(erasure(m.getReturnType()), erasure(field.asType()))) return m;
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the generated cloner, a class in packageName, can access member of declaring
+	 */
+	private boolean accessible(final Element member, final TypeElement declaring, final String packageName) {
+		final Set<Modifier> modifiers = member.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE)) return false;
+		final boolean samePackage = processingEnv.getElementUtils().getPackageOf(declaring).getQualifiedName().contentEquals(packageName);
+		return samePackage || modifiers.contains(Modifier.PUBLIC) && declaring.getModifiers().contains(Modifier.PUBLIC);
+	}
+
+	private TypeMirror erasure(final TypeMirror t) {
+		return processingEnv.getTypeUtils().erasure(t);
+	}
+
+	private TypeElement superclass(final TypeElement t) {
+		final TypeMirror superclass = t.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) return null;
+		final TypeElement s = (TypeElement) ((DeclaredType) superclass).asElement();
+		return s.getQualifiedName().contentEquals("java.lang.Object") ? null : s;
+	}
+
+	/**
+	 * @return the canonical name of t without type parameters
+	 */
+	private String rawName(final TypeElement t) {
+		return t.getQualifiedName().toString();
+	}
+
+	/**
+	 * @return the simple names of t and its enclosing classes joined by _, i.e. Outer_Inner
+	 */
+	private static String flatName(final TypeElement t) {
+		final List<String> names = new ArrayList<String>();
+		for (Element e = t; !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+			names.add(e.getSimpleName().toString());
+		}
+		Collections.reverse(names);
+		final StringBuilder sb = new StringBuilder();
+		for (final String name : names) {
+			if (sb.length() > 0) sb.append('_');
+			sb.append(name);
+		}
+		return sb.toString();
+	}
+
+	private void writeServices() {
+		// keep the cloners of previous, incremental, compilations
+		try {
+			final FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+			final BufferedReader in = new BufferedReader(new InputStreamReader(existing.openInputStream(), "UTF-8"));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (!line.trim().isEmpty()) generated.add(line.trim());
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			// no services file yet
+		}
+		try {
+			final FileObject services = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+			final PrintWriter out = new PrintWriter(services.openWriter());
+			try {
+				for (final String cloner : generated) {
+					out.println(cloner);
+				}
+			} finally {
+				out.close();
+			}
+		} catch (final IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "can't write " + SERVICES + ": " + e);
+		}
+	}
+
+	private boolean error(final Element e, final String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+		return false;
+	}
+}
@@ -0,0 +1,173 @@
+package com.rits.cloning.processor;
+
+import com.rits.cloning.CloneMetrics;
+import com.rits.cloning.Cloner;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestGenerateClonerProcessor {
+
+	private static final String PERSON = "package p;\n"
+			+ "import com.rits.cloning.GenerateCloner;\n"
+			+ "import java.util.List;\n"
+			+ "@GenerateCloner\n"
+			+ "public class Person<T> extends Base {\n"
+			+ "	String name;\n"
+			+ "	int age;\n"
+			+ "	Person<T> friend;\n"
+			+ "	T payload;\n"
+			+ "	String id;\n"
+			+ "	private List<String> tags;\n"
+			+ "	private boolean active;\n"
+			+ "	public List<String> getTags() { return tags; }\n"
+			+ "	public void setTags(List<String> tags) { this.tags = tags; }\n"
+			+ "	public boolean isActive() { return active; }\n"
+			+ "	public void setActive(boolean active) { this.active = active; }\n"
+			+ "	@GenerateCloner\n"
+			+ "	public static class Address {\n"
+			+ "		String street;\n"
+			+ "	}\n"
+			+ "}\n";
+	private static final String BASE = "package p;\n"
+			+ "public class Base {\n"
+			+ "	static Object ignored = new Object();\n"
+			+ "	long id;\n"
+			+ "}\n";
+
+	private File out;
+
+	@Before
+	public void setUp() throws Exception {
+		out = Files.createTempDirectory("generated").toFile();
+	}
+
+	private DiagnosticCollector<JavaFileObject> compile(final String... sources) throws Exception {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		final StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null);
+		final List<JavaFileObject> units = new ArrayList<JavaFileObject>();
+		for (int i = 0; i < sources.length; i += 2) {
+			units.add(new Source(sources[i], sources[i + 1]));
+		}
+		final List<String> options = Arrays.asList("-d", out.getPath(), "-cp", System.getProperty("java.class.path"),
+				"-processor", GenerateClonerProcessor.class.getName());
+		compiler.getTask(null, files, diagnostics, options, null, units).call();
+		files.close();
+		return diagnostics;
+	}
+
+	@Test
+	public void generatedClonersAreServiceLoaded() throws Exception {
+		final DiagnosticCollector<JavaFileObject> diagnostics = compile("p/Person", PERSON, "p/Base", BASE);
+		for (final Diagnostic<?> d : diagnostics.getDiagnostics()) {
+			assertNotEquals(d.toString(), Diagnostic.Kind.ERROR, d.getKind());
+		}
+		assertTrue(new File(out, "p/PersonFastCloner.class").exists());
+		assertTrue(new File(out, "p/Person_AddressFastCloner.class").exists());
+		final String services = new String(Files.readAllBytes(new File(out, GenerateClonerProcessor.SERVICES).toPath()), "UTF-8");
+		assertEquals("p.PersonFastCloner\np.Person_AddressFastCloner\n", services.replace("\r", ""));
+
+		final URLClassLoader loader = new URLClassLoader(new URL[]{out.toURI().toURL()}, getClass().getClassLoader());
+		final Thread thread = Thread.currentThread();
+		final ClassLoader previous = thread.getContextClassLoader();
+		thread.setContextClassLoader(loader);
+		final Cloner cloner;
+		try {
+			cloner = new Cloner();
+		} finally {
+			thread.setContextClassLoader(previous);
+		}
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+
+		final Class<?> personClass = loader.loadClass("p.Person");
+		final Object person = personClass.newInstance();
+		set(person, personClass, "name", "John");
+		set(person, personClass, "age", 42);
+		set(person, personClass, "friend", person);
+		set(person, personClass, "payload", new ArrayList<Object>(Arrays.asList("x")));
+		set(person, personClass, "id", "p1");
+		set(person, loader.loadClass("p.Base"), "id", 7L);
+		set(person, personClass, "tags", new ArrayList<String>(Arrays.asList("a", "b")));
+		set(person, personClass, "active", true);
+
+		final Object clone = cloner.deepClone(person);
+		assertNotSame(person, clone);
+		assertEquals("John", get(clone, personClass, "name"));
+		assertEquals(42, get(clone, personClass, "age"));
+		assertSame(clone, get(clone, personClass, "friend"));
+		assertEquals(get(person, personClass, "payload"), get(clone, personClass, "payload"));
+		assertNotSame(get(person, personClass, "payload"), get(clone, personClass, "payload"));
+		assertEquals("p1", get(clone, personClass, "id"));
+		assertEquals(7L, get(clone, loader.loadClass("p.Base"), "id"));
+		assertEquals(Arrays.asList("a", "b"), get(clone, personClass, "tags"));
+		assertNotSame(get(person, personClass, "tags"), get(clone, personClass, "tags"));
+		assertEquals(true, get(clone, personClass, "active"));
+
+		assertEquals(1, metrics.get(personClass).getFastCloned());
+		assertEquals(0, metrics.get(personClass).getReflectivelyCloned());
+	}
+
+	@Test
+	public void unsupportedFieldsAreErrors() throws Exception {
+		final DiagnosticCollector<JavaFileObject> diagnostics = compile("p/Bad", "package p;\n"
+				+ "@com.rits.cloning.GenerateCloner\n"
+				+ "public class Bad {\n"
+				+ "	final String name = \"\";\n"
+				+ "	private int hidden;\n"
+				+ "}\n");
+		final List<String> errors = new ArrayList<String>();
+		for (final Diagnostic<?> d : diagnostics.getDiagnostics()) {
+			if (d.getKind() == Diagnostic.Kind.ERROR) errors.add(d.getMessage(null));
+		}
+		assertEquals(errors.toString(), 2, errors.size());
+		assertTrue(errors.get(0).contains("final"));
+		assertTrue(errors.get(1).contains("getter and a setter"));
+		assertFalse(new File(out, "p/BadFastCloner.class").exists());
+	}
+
+	private static void set(final Object o, final Class<?> clz, final String name, final Object value) throws Exception {
+		final Field f = clz.getDeclaredField(name);
+		f.setAccessible(true);
+		f.set(o, value);
+	}
+
+	private static Object get(final Object o, final Class<?> clz, final String name) throws Exception {
+		final Field f = clz.getDeclaredField(name);
+		f.setAccessible(true);
+		return f.get(o);
+	}
+
+	private static class Source extends SimpleJavaFileObject {
+		private final String code;
+
+		Source(final String name, final String code) {
+			super(URI.create("string:///" + name + ".java"), Kind.SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+			return code;
+		}
+	}
+}
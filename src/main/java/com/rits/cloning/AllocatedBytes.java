@@ -0,0 +1,45 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * the bytes allocated by the current thread, read from com.sun.management.ThreadMXBean when the
+ * jvm provides it. Looked up reflectively so that the cloner still loads on jvms without it.
+ */
+final class AllocatedBytes {
+	private static final MethodHandle THREAD_ALLOCATED_BYTES = lookup();
+
+	private AllocatedBytes() {
+	}
+
+	private static MethodHandle lookup() {
+		try {
+			final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			final Class<?> sunThreads = Class.forName("com.sun.management.ThreadMXBean");
+			if (!sunThreads.isInstance(threads)) return null;
+			if (!(Boolean) sunThreads.getMethod("isThreadAllocatedMemorySupported").invoke(threads)) return null;
+			if (!(Boolean) sunThreads.getMethod("isThreadAllocatedMemoryEnabled").invoke(threads)) return null;
+			return MethodHandles.publicLookup()
+					.findVirtual(sunThreads, "getThreadAllocatedBytes", MethodType.methodType(long.class, long.class))
+					.bindTo(threads);
+		} catch (final Throwable t) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the bytes allocated so far by the current thread or -1 if the jvm can't tell
+	 */
+	static long current() {
+		if (THREAD_ALLOCATED_BYTES == null) return -1;
+		try {
+			return (long) THREAD_ALLOCATED_BYTES.invokeExact(Thread.currentThread().getId());
+		} catch (final Throwable t) {
+			return -1;
+		}
+	}
+}
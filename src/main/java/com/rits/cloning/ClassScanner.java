@@ -0,0 +1,96 @@
+package com.rits.cloning;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * finds the classes of a package and its sub packages in the directories and jars of a class loader,
+ * see Cloner.preparePackage()
+ */
+final class ClassScanner {
+	private ClassScanner() {
+	}
+
+	/**
+	 * @return the classes of packageName and its sub packages, without initializing them. Classes that
+	 * 		can't be loaded are skipped.
+	 */
+	static List<Class<?>> classesIn(final String packageName, final ClassLoader loader) throws IOException {
+		final String path = packageName.replace('.', '/');
+		final Set<String> names = new LinkedHashSet<String>();
+		final Enumeration<URL> urls = loader.getResources(path);
+		while (urls.hasMoreElements()) {
+			final URL url = urls.nextElement();
+			if ("file".equals(url.getProtocol())) {
+				try {
+					scanDirectory(new File(url.toURI()), packageName, names);
+				} catch (final URISyntaxException e) {
+					throw new IOException(e);
+				}
+			} else if ("jar".equals(url.getProtocol())) {
+				final JarURLConnection connection = (JarURLConnection) url.openConnection();
+				connection.setUseCaches(false);
+				final JarFile jar = connection.getJarFile();
+				try {
+					scanJar(jar, path, names);
+				} finally {
+					jar.close();
+				}
+			}
+		}
+		final List<Class<?>> classes = new ArrayList<Class<?>>(names.size());
+		for (final String name : names) {
+			final Class<?> clz = load(name, loader);
+			if (clz != null) classes.add(clz);
+		}
+		return classes;
+	}
+
+	/**
+	 * @return the class or null if it can't be loaded, i.e. it depends on classes missing from the classpath
+	 */
+	static Class<?> load(final String name, final ClassLoader loader) {
+		try {
+			return Class.forName(name, false, loader);
+		} catch (final ClassNotFoundException e) {
+			return null;
+		} catch (final LinkageError e) {
+			return null;
+		}
+	}
+
+	private static void scanDirectory(final File dir, final String packageName, final Set<String> names) {
+		final File[] files = dir.listFiles();
+		if (files == null) return;
+		for (final File f : files) {
+			if (f.isDirectory()) {
+				scanDirectory(f, packageName + "." + f.getName(), names);
+			} else {
+				addClass(packageName + "." + f.getName(), names);
+			}
+		}
+	}
+
+	private static void scanJar(final JarFile jar, final String path, final Set<String> names) {
+		final Enumeration<JarEntry> entries = jar.entries();
+		while (entries.hasMoreElements()) {
+			final String entry = entries.nextElement().getName();
+			if (entry.startsWith(path + "/")) addClass(entry.replace('/', '.'), names);
+		}
+	}
+
+	private static void addClass(final String fileName, final Set<String> names) {
+		if (!fileName.endsWith(".class") || fileName.endsWith("package-info.class") || fileName.endsWith("module-info.class")) return;
+		names.add(fileName.substring(0, fileName.length() - ".class".length()));
+	}
+}
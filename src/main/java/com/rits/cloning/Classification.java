@@ -0,0 +1,56 @@
+package com.rits.cloning;
+
+/**
+ * what the Cloner does with an instance of a class. Decided once per class from the cloner's
+ * registrations (immutables, dontClone, dontCloneInstanceOf, nullInsteadOfClone, fast cloners)
+ * so that cloning an object costs a single lookup.
+ */
+final class Classification {
+	enum Kind {
+		/**
+		 * the instance is returned as is, i.e. enums, immutables and dontClone classes
+		 */
+		IMMUTABLE,
+		/**
+		 * null is returned instead of a clone
+		 */
+		NULL,
+		/**
+		 * cloned by a registered IFastCloner
+		 */
+		FAST_CLONER,
+		/**
+		 * array of primitives or immutables, cloned with System.arraycopy
+		 */
+		ARRAY_PRIMITIVE,
+		/**
+		 * array whose elements are deep cloned
+		 */
+		ARRAY,
+		/**
+		 * cloned field by field according to its ClonePlan
+		 */
+		REFLECTIVE
+	}
+
+	final Kind kind;
+	/**
+	 * true if instances implement IFreezable, in which case frozen instances are not cloned
+	 */
+	final boolean freezable;
+	/**
+	 * the fast cloner for FAST_CLONER classes, null otherwise
+	 */
+	final IFastCloner fastCloner;
+	/**
+	 * the number of clones the last deep clone of an instance of this class needed, used to size
+	 * the clones map of the next one. Only a hint, so it is read and written without synchronization.
+	 */
+	int clonesSizeHint = 16;
+
+	Classification(final Kind kind, final boolean freezable, final IFastCloner fastCloner) {
+		this.kind = kind;
+		this.freezable = freezable;
+		this.fastCloner = fastCloner;
+	}
+}
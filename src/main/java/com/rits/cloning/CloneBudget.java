@@ -0,0 +1,61 @@
+package com.rits.cloning;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * the limits of a single deep clone. The counters of the clone live on its IdentityCloneMap, so a
+ * budget is immutable and shared by all the calls of a Cloner. A limit of 0 or less is no limit.
+ */
+final class CloneBudget {
+	final int maxObjects;
+	final int maxDepth;
+	final long maxBytes;
+
+	CloneBudget(final int maxObjects, final int maxDepth, final long maxBytes) {
+		this.maxObjects = maxObjects;
+		this.maxDepth = maxDepth;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return null if there are no limits
+	 */
+	static CloneBudget of(final int maxObjects, final int maxDepth, final long maxBytes) {
+		if (maxObjects <= 0 && maxDepth <= 0 && maxBytes <= 0) return null;
+		return new CloneBudget(maxObjects, maxDepth, maxBytes);
+	}
+
+	/**
+	 * accounts for clone, just registered in clones at clones.depth
+	 *
+	 * @throws CloningBudgetExceededException if clone exceeds a limit
+	 */
+	void charge(final IdentityCloneMap clones, final Object clone) {
+		if (maxObjects > 0 && ++clones.cloned > maxObjects) {
+			throw new CloningBudgetExceededException("more than " + maxObjects + " objects", clone.getClass());
+		}
+		checkDepth(clones.depth, clone.getClass());
+		if (maxBytes > 0) {
+			clones.bytes += estimateSize(clone);
+			if (clones.bytes > maxBytes) {
+				throw new CloningBudgetExceededException("more than " + maxBytes + " bytes", clone.getClass());
+			}
+		}
+	}
+
+	void checkDepth(final int depth, final Class<?> clz) {
+		if (maxDepth > 0 && depth > maxDepth) {
+			throw new CloningBudgetExceededException("deeper than " + maxDepth + " objects", clz);
+		}
+	}
+
+	private static long estimateSize(final Object clone) {
+		final Class<?> clz = clone.getClass();
+		if (clz.isArray()) return ObjectLayout.arraySize(clz.getComponentType(), Array.getLength(clone));
+		if (clone instanceof Collection) return ObjectLayout.containerSize(clone, ((Collection<?>) clone).size());
+		if (clone instanceof Map) return ObjectLayout.containerSize(clone, ((Map<?, ?>) clone).size());
+		return ObjectLayout.shallowSize(clz);
+	}
+}
@@ -0,0 +1,157 @@
+package com.rits.cloning;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * an ICloneMetricsListener that aggregates the metrics per class in striped counters (LongAdder),
+ * so it is cheap enough to leave enabled in production:
+ *
+ * <pre>
+ * CloneMetrics metrics = new CloneMetrics();
+ * cloner.setCloneMetricsListener(metrics);
+ * ...
+ * for (CloneMetrics.ClassMetrics m : metrics.snapshot().values()) log(m);
+ * </pre>
+ */
+public class CloneMetrics implements ICloneMetricsListener
+{
+	private final boolean measureAllocatedBytes;
+	private final ConcurrentHashMap<Class<?>, ClassMetrics> metrics = new ConcurrentHashMap<Class<?>, ClassMetrics>();
+
+	/**
+	 * metrics without allocated bytes
+	 */
+	public CloneMetrics() {
+		this(false);
+	}
+
+	/**
+	 * @param measureAllocatedBytes true to also measure the bytes each deep clone allocates, which costs
+	 *                              a call to the jvm's thread allocation counter per deepClone call
+	 */
+	public CloneMetrics(final boolean measureAllocatedBytes) {
+		this.measureAllocatedBytes = measureAllocatedBytes;
+	}
+
+	public boolean measureAllocatedBytes() {
+		return measureAllocatedBytes;
+	}
+
+	public void objectCloned(final Class<?> clz, final boolean fastCloned) {
+		final ClassMetrics m = metricsFor(clz);
+		(fastCloned ? m.fastCloned : m.reflectivelyCloned).increment();
+	}
+
+	public void rootCloned(final Class<?> clz, final int objects, final long nanos, final long allocatedBytes) {
+		final ClassMetrics m = metricsFor(clz);
+		m.roots.increment();
+		m.objects.add(objects);
+		m.nanos.add(nanos);
+		if (allocatedBytes >= 0) m.allocatedBytes.add(allocatedBytes);
+	}
+
+	/**
+	 * @return the metrics of clz, null if no instance of clz was cloned
+	 */
+	public ClassMetrics get(final Class<?> clz) {
+		return metrics.get(clz);
+	}
+
+	/**
+	 * @return the metrics per class. The counters keep counting, call ClassMetrics getters to read them.
+	 */
+	public Map<Class<?>, ClassMetrics> snapshot() {
+		return Collections.unmodifiableMap(new HashMap<Class<?>, ClassMetrics>(metrics));
+	}
+
+	/**
+	 * drops all metrics
+	 */
+	public void reset() {
+		metrics.clear();
+	}
+
+	private ClassMetrics metricsFor(final Class<?> clz) {
+		final ClassMetrics m = metrics.get(clz);
+		if (m != null) return m;
+		final ClassMetrics newMetrics = new ClassMetrics(clz);
+		final ClassMetrics previous = metrics.putIfAbsent(clz, newMetrics);
+		return previous != null ? previous : newMetrics;
+	}
+
+	/**
+	 * the metrics of a class. Root metrics count deep clones of instances of the class, the
+	 * fast/reflective counts are of instances cloned anywhere in a graph.
+	 */
+	public static class ClassMetrics
+	{
+		private final Class<?> clz;
+		private final LongAdder roots = new LongAdder();
+		private final LongAdder objects = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final LongAdder allocatedBytes = new LongAdder();
+		private final LongAdder fastCloned = new LongAdder();
+		private final LongAdder reflectivelyCloned = new LongAdder();
+
+		ClassMetrics(final Class<?> clz) {
+			this.clz = clz;
+		}
+
+		public Class<?> getType() {
+			return clz;
+		}
+
+		/**
+		 * @return how many times an instance of this class was deep cloned
+		 */
+		public long getRoots() {
+			return roots.sum();
+		}
+
+		/**
+		 * @return the objects cloned by all deep clones of instances of this class
+		 */
+		public long getObjects() {
+			return objects.sum();
+		}
+
+		/**
+		 * @return the time spent deep cloning instances of this class
+		 */
+		public long getNanos() {
+			return nanos.sum();
+		}
+
+		/**
+		 * @return the bytes allocated by deep clones of instances of this class, when measured
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes.sum();
+		}
+
+		/**
+		 * @return how many instances of this class were cloned by a fast cloner
+		 */
+		public long getFastCloned() {
+			return fastCloned.sum();
+		}
+
+		/**
+		 * @return how many instances of this class were cloned field by field or as arrays
+		 */
+		public long getReflectivelyCloned() {
+			return reflectivelyCloned.sum();
+		}
+
+		@Override
+		public String toString() {
+			return clz.getName() + "[roots=" + getRoots() + ", objects=" + getObjects() + ", nanos=" + getNanos()
+					+ ", allocatedBytes=" + getAllocatedBytes() + ", fastCloned=" + getFastCloned()
+					+ ", reflectivelyCloned=" + getReflectivelyCloned() + "]";
+		}
+	}
+}
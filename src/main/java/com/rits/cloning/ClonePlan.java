@@ -0,0 +1,36 @@
+package com.rits.cloning;
+
+/**
+ * the compiled way of cloning instances of one class: flat arrays of the fields that have to be
+ * copied, already filtered and grouped according to the static/transient/synthetic/anonymous
+ * parent rules of the Cloner that built it. Plans are immutable, the Cloner discards them when its settings change.
+ */
+final class ClonePlan {
+	final Class<?> clz;
+	/**
+	 * primitive fields, copied without boxing and without consulting cloning strategies
+	 */
+	final PrimitiveFieldCopier[] primitives;
+	/**
+	 * fields whose reference is copied as is, i.e. synthetic fields when the cloner doesn't clone synthetics
+	 */
+	final FieldAccessor[] shared;
+	/**
+	 * fields whose value is deep cloned
+	 */
+	final FieldAccessor[] deep;
+	/**
+	 * instance fields that are not copied, i.e. transient fields when the cloner nulls them. They are
+	 * cleared as instances created by a constructor or reused by deepCloneInto may hold a value
+	 */
+	final FieldAccessor[] skipped;
+
+	ClonePlan(final Class<?> clz, final PrimitiveFieldCopier[] primitives, final FieldAccessor[] shared, final FieldAccessor[] deep,
+			final FieldAccessor[] skipped) {
+		this.clz = clz;
+		this.primitives = primitives;
+		this.shared = shared;
+		this.deep = deep;
+		this.skipped = skipped;
+	}
+}
@@ -0,0 +1,58 @@
+package com.rits.cloning;
+
+import java.util.Arrays;
+
+/**
+ * the work stack of iterative cloning: one frame per object whose fields (or array elements) are
+ * still being cloned, with the index of the next field. Kept in parallel arrays so that pushing a
+ * frame doesn't allocate.
+ */
+final class CloneStack {
+	Object[] src = new Object[16];
+	Object[] dest = new Object[16];
+	/**
+	 * the deep fields of src, null if src is an Object[]
+	 */
+	FieldAccessor[][] fields = new FieldAccessor[16][];
+	int[] index = new int[16];
+	/**
+	 * true if dest is a reused object of the target of deepCloneInto, whose fields are cloned into
+	 */
+	boolean[] into = new boolean[16];
+	int size;
+
+	void push(final Object o, final Object clone, final FieldAccessor[] deep) {
+		push(o, clone, deep, false);
+	}
+
+	void push(final Object o, final Object clone, final FieldAccessor[] deep, final boolean reused) {
+		if (size == src.length) grow();
+		src[size] = o;
+		dest[size] = clone;
+		fields[size] = deep;
+		index[size] = 0;
+		into[size] = reused;
+		size++;
+	}
+
+	/**
+	 * drops the frames above newSize
+	 */
+	void truncate(final int newSize) {
+		while (size > newSize) {
+			size--;
+			src[size] = null;
+			dest[size] = null;
+			fields[size] = null;
+		}
+	}
+
+	private void grow() {
+		final int length = src.length * 2;
+		src = Arrays.copyOf(src, length);
+		dest = Arrays.copyOf(dest, length);
+		fields = Arrays.copyOf(fields, length);
+		index = Arrays.copyOf(index, length);
+		into = Arrays.copyOf(into, length);
+	}
+}
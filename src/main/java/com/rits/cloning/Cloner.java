@@ -1,5 +1,9 @@
 package com.rits.cloning;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
@@ -8,20 +12,58 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
@@ -31,6 +73,10 @@ import org.slf4j.LoggerFactory;
  * Cloner: deep clone objects.
  *
  * This class is thread safe. One instance can be used by multiple threads on the same time.
+ * The registries (immutables, constants, fast cloners, cloning strategies etc) are concurrent or
+ * copy-on-write and the per class caches are replaced, not mutated, when the configuration
+ * changes. So cloning never locks and a clone running while the cloner is re-configured sees
+ * either the old or the new configuration for each class, never a partially updated one.
  *
  * @author kostantinos.kougios
  *         18 Sep 2008
@@ -39,13 +85,28 @@ public class Cloner {
 	private static final Logger LOGGER = LoggerFactory.getLogger(Cloner.class);
 	
 	private final IInstantiationStrategy instantiationStrategy;
-	private final Set<Class<?>> ignored = new HashSet<Class<?>>();
-	private final Set<Class<?>> ignoredInstanceOf = new HashSet<Class<?>>();
-	private final Set<Class<?>> nullInstead = new HashSet<Class<?>>();
-	private final Map<Class<?>, IFastCloner> fastCloners = new HashMap<Class<?>, IFastCloner>();
-	private final Map<Object, Boolean> ignoredInstances = new IdentityHashMap<Object, Boolean>();
+	private final Set<Class<?>> ignored = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final Set<Class<?>> ignoredInstanceOf = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	/**
+	 * the classes of dontClone(), which are also in ignored with the registered immutables
+	 */
+	private final Set<Class<?>> dontCloneClasses = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final Set<Class<?>> nullInstead = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final ConcurrentHashMap<Class<?>, IFastCloner> fastCloners = new ConcurrentHashMap<Class<?>, IFastCloner>();
+	// copy-on-write, replaced under the cloner's lock and never modified after publication
+	private volatile IdentityHashMap<Object, Boolean> ignoredInstances = new IdentityHashMap<Object, Boolean>();
 	private final ConcurrentHashMap<Class<?>, List<Field>> fieldsCache = new ConcurrentHashMap<Class<?>, List<Field>>();
-	private final List<ICloningStrategy> cloningStrategies = new LinkedList<ICloningStrategy>();
+	// replaced (not cleared) whenever the configuration they are built from changes
+	private volatile ConcurrentHashMap<Class<?>, ClonePlan> plans = new ConcurrentHashMap<Class<?>, ClonePlan>();
+	private volatile ConcurrentHashMap<Class<?>, Classification> classifications = new ConcurrentHashMap<Class<?>, Classification>();
+	private volatile ConcurrentHashMap<Class<?>, Boolean> inferredImmutables = new ConcurrentHashMap<Class<?>, Boolean>();
+	private final List<ICloningStrategy> cloningStrategies = new CopyOnWriteArrayList<ICloningStrategy>();
+	private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, PropertyCopier>> propertyCopiers =
+			new ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, PropertyCopier>>();
+	/**
+	 * classes whose fields can't be read, sized without following their references
+	 */
+	private final ConcurrentHashMap<Class<?>, Boolean> unreadable = new ConcurrentHashMap<Class<?>, Boolean>();
 
 	public IDumpCloned getDumpCloned() {
 		return dumpCloned;
@@ -62,10 +123,37 @@ public class Cloner {
 		this.dumpCloned = dumpCloned;
 	}
 
-	private IDumpCloned dumpCloned = null;
-	private boolean cloningEnabled = true;
-	private boolean nullTransient = false;
-	private boolean cloneSynthetics = true;
+	private volatile IDumpCloned dumpCloned = null;
+	private volatile ICloneMetricsListener cloneMetricsListener = null;
+	private volatile boolean cloningEnabled = true;
+	private volatile boolean nullTransient = false;
+	private volatile boolean cloneSynthetics = true;
+	private volatile int parallelThreshold = 8192;
+	private volatile boolean iterativeCloning = false;
+	private volatile boolean inferImmutables = false;
+	private volatile int maxClonedObjects = 0;
+	private volatile int maxCloneDepth = 0;
+	private volatile long maxClonedBytes = 0;
+	private volatile CloneBudget cloneBudget = null;
+	/**
+	 * true if a subclass overrides fastClone(), which then is consulted for every object that is cloned,
+	 * not only for the classes with a registered fast cloner
+	 */
+	private final boolean fastCloneOverridden = overridesFastClone(getClass());
+
+	public ICloneMetricsListener getCloneMetricsListener() {
+		return cloneMetricsListener;
+	}
+
+	/**
+	 * provide a listener for metrics of the cloning, i.e. a CloneMetrics which counts clones,
+	 * objects, time and allocations per class. null (the default) disables metrics.
+	 *
+	 * @param cloneMetricsListener the listener or null
+	 */
+	public void setCloneMetricsListener(final ICloneMetricsListener cloneMetricsListener) {
+		this.cloneMetricsListener = cloneMetricsListener;
+	}
 
 	public Cloner() {
 		this.instantiationStrategy = ObjenesisInstantiationStrategy.getInstance();
@@ -90,10 +178,34 @@ public class Cloner {
 	 */
 	public void setNullTransient(final boolean nullTransient) {
 		this.nullTransient = nullTransient;
+		plansChanged();
+		// transient fields decide if a class can be inferred immutable
+		classificationsChanged();
+	}
+
+	public boolean isInferImmutables() {
+		return inferImmutables;
+	}
+
+	/**
+	 * if true, the cloner infers which classes are deeply immutable and shares their instances, and so
+	 * the whole graph reachable from them, instead of cloning them. A class is deeply immutable if all its
+	 * (and its superclasses') instance fields are final and of a primitive or immutable type. A type is
+	 * immutable if it is registered as immutable (or dontClone), annotated with @Immutable, an enum, or
+	 * a final class which is itself deeply immutable. Arrays and classes with a fast cloner never are.
+	 *
+	 * Cloning strategies are not consulted for the fields of inferred classes. Default is false
+	 *
+	 * @param inferImmutables true to infer deeply immutable classes
+	 */
+	public void setInferImmutables(final boolean inferImmutables) {
+		this.inferImmutables = inferImmutables;
+		classificationsChanged();
 	}
 
 	public void setCloneSynthetics(final boolean cloneSynthetics) {
 		this.cloneSynthetics = cloneSynthetics;
+		plansChanged();
 	}
 
 	private void init() {
@@ -114,19 +226,100 @@ public class Cloner {
 		fastCloners.put(TreeMap.class, new FastClonerTreeMap());
 		fastCloners.put(LinkedHashMap.class, new FastClonerLinkedHashMap());
 		fastCloners.put(ConcurrentHashMap.class, new FastClonerConcurrentHashMap());
+		fastCloners.put(TreeSet.class, new FastClonerTreeSet());
+		fastCloners.put(LinkedHashSet.class, new FastClonerLinkedHashSet());
+		fastCloners.put(ArrayDeque.class, new FastClonerArrayDeque());
+		fastCloners.put(PriorityQueue.class, new FastClonerPriorityQueue());
+		fastCloners.put(EnumMap.class, new FastClonerEnumMap());
+		fastCloners.put(CopyOnWriteArrayList.class, new FastClonerCopyOnWriteArrayList());
+		fastCloners.put(ConcurrentSkipListMap.class, new FastClonerConcurrentSkipListMap());
+		fastCloners.put(Optional.class, new FastClonerOptional());
+		classificationsChanged();
 
 		// register private classes
 		FastClonerArrayListSubList subListCloner = new FastClonerArrayListSubList();
 		registerInaccessibleClassToBeFastCloned("java.util.ArrayList$SubList", subListCloner);
 		registerInaccessibleClassToBeFastCloned("java.util.SubList", subListCloner);
 		registerInaccessibleClassToBeFastCloned("java.util.RandomAccessSubList", subListCloner);
+
+		final FastClonerEnumSet enumSetCloner = new FastClonerEnumSet();
+		registerInaccessibleClassToBeFastCloned("java.util.RegularEnumSet", enumSetCloner);
+		registerInaccessibleClassToBeFastCloned("java.util.JumboEnumSet", enumSetCloner);
+
+		registerUnmodifiableFastCloners();
+
+		// List.of, Set.of and Map.of, java 9 and later
+		final IFastCloner listOfCloner = FastClonerImmutableCollection.list();
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$List12", listOfCloner);
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$ListN", listOfCloner);
+		final IFastCloner setOfCloner = FastClonerImmutableCollection.set();
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$Set12", setOfCloner);
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$SetN", setOfCloner);
+		final IFastCloner mapOfCloner = FastClonerImmutableCollection.map();
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$Map1", mapOfCloner);
+		registerInaccessibleClassToBeFastCloned("java.util.ImmutableCollections$MapN", mapOfCloner);
+
+		registerServiceLoadedFastCloners();
+	}
+
+	/**
+	 * registers the ITypedFastCloners listed in META-INF/services, i.e. the ones generated for @GenerateCloner
+	 * classes. They replace the std fast cloners of the same class. They are loaded by the context class loader,
+	 * so that i.e. a cloner of a web application finds the cloners of the application's classes.
+	 */
+	protected void registerServiceLoadedFastCloners() {
+		final ServiceLoader<ITypedFastCloner> loader = ServiceLoader.load(ITypedFastCloner.class, classLoader());
+		final Iterator<ITypedFastCloner> it = loader.iterator();
+		while (true) {
+			try {
+				if (!it.hasNext()) break;
+				final ITypedFastCloner fastCloner = it.next();
+				fastCloners.put(fastCloner.type(), fastCloner);
+			} catch (final ServiceConfigurationError e) {
+				// i.e. a cloner compiled against classes missing from the classpath, skip it
+				LOGGER.warn("can't load fast cloner", e);
+			}
+		}
+		classificationsChanged();
 	}
 
+	/**
+	 * registers fast cloners for the Collections.unmodifiable* wrappers. They need java.util to be open
+	 * to the cloner, otherwise the wrappers are cloned reflectively (which needs it too).
+	 */
+	private void registerUnmodifiableFastCloners() {
+		final String collection = "java.util.Collections$UnmodifiableCollection";
+		final String map = "java.util.Collections$UnmodifiableMap";
+		registerInaccessibleClassToBeFastCloned(collection,
+				FastClonerUnmodifiable.of(collection, "c", "unmodifiableCollection", Collection.class));
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableSet",
+				FastClonerUnmodifiable.of(collection, "c", "unmodifiableSet", Set.class));
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableSortedSet",
+				FastClonerUnmodifiable.of(collection, "c", "unmodifiableSortedSet", SortedSet.class));
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableNavigableSet",
+				FastClonerUnmodifiable.of(collection, "c", "unmodifiableNavigableSet", NavigableSet.class));
+		final FastClonerUnmodifiable listCloner = FastClonerUnmodifiable.of(collection, "c", "unmodifiableList", List.class);
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableList", listCloner);
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableRandomAccessList", listCloner);
+		registerInaccessibleClassToBeFastCloned(map,
+				FastClonerUnmodifiable.of(map, "m", "unmodifiableMap", Map.class));
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableSortedMap",
+				FastClonerUnmodifiable.of(map, "m", "unmodifiableSortedMap", SortedMap.class));
+		registerInaccessibleClassToBeFastCloned("java.util.Collections$UnmodifiableNavigableMap",
+				FastClonerUnmodifiable.of(map, "m", "unmodifiableNavigableMap", NavigableMap.class));
+	}
+
+	/**
+	 * registers a fast cloner for a class that isn't accessible, i.e. a private class of the jdk. Nothing is
+	 * registered if the class doesn't exist or fastCloner is null.
+	 */
 	protected void registerInaccessibleClassToBeFastCloned(String className, IFastCloner fastCloner) {
+		if (fastCloner == null) return;
 		try {
 			ClassLoader classLoader = getClass().getClassLoader();
 			Class<?> subListClz = classLoader.loadClass(className);
 			fastCloners.put(subListClz, fastCloner);
+			classificationsChanged();
 		} catch (ClassNotFoundException e) {
 			// ignore, maybe a jdk without SubList
 		}
@@ -141,28 +334,72 @@ public class Cloner {
 				throw new IllegalStateException(e);
 			}
 		}
+
+		public boolean isImmutable(final Class<?> clz) {
+			return classify(clz).kind == Classification.Kind.IMMUTABLE;
+		}
 	};
 
+	/**
+	 * clones o with the fast cloner registered for its class. Subclasses can override it to fast clone
+	 * other objects too, returning null lets the cloner clone o as it normally would.
+	 *
+	 * @param o      the object to be cloned
+	 * @param clones the already cloned objects, null if none are tracked
+	 * @return the clone of o or null if o has no fast cloner
+	 */
 	protected Object fastClone(final Object o, final Map<Object, Object> clones) {
-		final Class<? extends Object> c = o.getClass();
-		final IFastCloner fastCloner = fastCloners.get(c);
+		final IFastCloner fastCloner = classify(o.getClass()).fastCloner;
 		if (fastCloner != null) return fastCloner.clone(o, deepCloner, clones);
 		return null;
 	}
 
-	public void registerConstant(final Object o) {
-		ignoredInstances.put(o, true);
+	private static boolean overridesFastClone(final Class<?> clz) {
+		for (Class<?> c = clz; c != Cloner.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod("fastClone", Object.class, Map.class);
+				return true;
+			} catch (final NoSuchMethodException e) {
+				// not declared in c, try its superclass
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	public synchronized void registerConstant(final Object o) {
+		// clone() copies the table as is, the copy constructor would re-insert and cluster the entries
+		final IdentityHashMap<Object, Boolean> instances = (IdentityHashMap<Object, Boolean>) ignoredInstances.clone();
+		instances.put(o, true);
+		ignoredInstances = instances;
+	}
+
+	/**
+	 * registers all the instances of constants at once, which is cheaper than registering them one by one
+	 * as the constants are copied on write
+	 *
+	 * @param constants the instances that shouldn't be cloned
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void registerConstants(final Collection<?> constants) {
+		final IdentityHashMap<Object, Boolean> instances = (IdentityHashMap<Object, Boolean>) ignoredInstances.clone();
+		for (final Object o : constants) {
+			instances.put(o, true);
+		}
+		ignoredInstances = instances;
 	}
 
 	public void registerConstant(final Class<?> c, final String privateFieldName) {
+		registerConstant(staticFieldValue(c, privateFieldName));
+	}
+
+	private Object staticFieldValue(final Class<?> c, final String privateFieldName) {
 		try {
 			List<Field> fields = allFields(c);
 			for (Field field : fields) {
 				if (field.getName().equals(privateFieldName)) {
 					field.setAccessible(true);
-					final Object v = field.get(null);
-					ignoredInstances.put(v, true);
-					return;
+					return field.get(null);
 				}
 			}
 			throw new RuntimeException("No such field : " + privateFieldName);
@@ -198,16 +435,41 @@ public class Cloner {
 		registerImmutable(URL.class);
 		registerImmutable(UUID.class);
 		registerImmutable(Pattern.class);
+		registerImmutable(Locale.class);
+		registerImmutable(OptionalInt.class, OptionalLong.class, OptionalDouble.class);
+
+		registerImmutable(Instant.class, Duration.class, Period.class);
+		registerImmutable(LocalDate.class, LocalTime.class, LocalDateTime.class);
+		registerImmutable(ZonedDateTime.class, OffsetDateTime.class, OffsetTime.class);
+		registerImmutable(Year.class, YearMonth.class, MonthDay.class);
+		registerImmutable(ZoneOffset.class);
+		// the ZoneId of ZoneId.of("Europe/London")
+		registerInaccessibleClassToBeImmutable("java.time.ZoneRegion");
+	}
+
+	/**
+	 * registers an immutable class that isn't accessible, i.e. a private class of the jdk. Nothing is
+	 * registered if the class doesn't exist.
+	 */
+	protected void registerInaccessibleClassToBeImmutable(final String className) {
+		try {
+			registerImmutable(getClass().getClassLoader().loadClass(className));
+		} catch (final ClassNotFoundException e) {
+			// ignore, maybe an older jdk
+		}
 	}
 
 	protected void registerKnownConstants() {
 		// registering known constants of the jdk. 
 		registerStaticFields(TreeSet.class, HashSet.class, HashMap.class, TreeMap.class);
+		// returned by Collections.emptyList(), emptySet() and emptyMap()
+		registerConstants(Arrays.asList(Collections.EMPTY_LIST, Collections.EMPTY_SET, Collections.EMPTY_MAP));
 	}
 
 	public void registerCloningStrategy(ICloningStrategy strategy) {
 		if (strategy == null) throw new NullPointerException("strategy can't be null");
 		cloningStrategies.add(strategy);
+		plansChanged();
 	}
 
 	/**
@@ -220,15 +482,17 @@ public class Cloner {
 	 * @param classes array of classes
 	 */
 	public void registerStaticFields(final Class<?>... classes) {
+		final List<Object> constants = new ArrayList<Object>();
 		for (final Class<?> c : classes) {
 			final List<Field> fields = allFields(c);
 			for (final Field field : fields) {
 				final int mods = field.getModifiers();
 				if (Modifier.isStatic(mods) && !field.getType().isPrimitive()) {
-					registerConstant(c, field.getName());
+					constants.add(staticFieldValue(c, field.getName()));
 				}
 			}
 		}
+		registerConstants(constants);
 	}
 
 	/**
@@ -250,13 +514,16 @@ public class Cloner {
 	public void dontClone(final Class<?>... c) {
 		for (final Class<?> cl : c) {
 			ignored.add(cl);
+			dontCloneClasses.add(cl);
 		}
+		classificationsChanged();
 	}
 
 	public void dontCloneInstanceOf(final Class<?>... c) {
 		for (final Class<?> cl : c) {
 			ignoredInstanceOf.add(cl);
 		}
+		classificationsChanged();
 	}
 
 	public void setDontCloneInstanceOf(final Class<?>... c) {
@@ -272,11 +539,13 @@ public class Cloner {
 		for (final Class<?> cl : c) {
 			nullInstead.add(cl);
 		}
+		classificationsChanged();
 	}
 
 	// spring framework friendly version of nullInsteadOfClone
 	public void setExtraNullInsteadOfClone(final Set<Class<?>> set) {
 		nullInstead.addAll(set);
+		classificationsChanged();
 	}
 
 	/**
@@ -288,20 +557,23 @@ public class Cloner {
 		for (final Class<?> cl : c) {
 			ignored.add(cl);
 		}
+		classificationsChanged();
 	}
 
 	// spring framework friendly version of registerImmutable
 	public void setExtraImmutables(final Set<Class<?>> set) {
 		ignored.addAll(set);
+		classificationsChanged();
 	}
 
 	public void registerFastCloner(final Class<?> c, final IFastCloner fastCloner) {
-		if (fastCloners.containsKey(c)) throw new IllegalArgumentException(c + " already fast-cloned!");
-		fastCloners.put(c, fastCloner);
+		if (fastCloners.putIfAbsent(c, fastCloner) != null) throw new IllegalArgumentException(c + " already fast-cloned!");
+		classificationsChanged();
 	}
 
 	public void unregisterFastCloner(final Class<?> c) {
 		fastCloners.remove(c);
+		classificationsChanged();
 	}
 
 	/**
@@ -336,11 +608,20 @@ public class Cloner {
 		if (dumpCloned != null) {
 			dumpCloned.startCloning(o.getClass());
 		}
-		final Map<Object, Object> clones = new IdentityHashMap<Object, Object>(16);
+		final Classification classification = classify(o.getClass());
+		final IdentityCloneMap clones = acquireClones(classification.clonesSizeHint);
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		final long start = metrics != null ? System.nanoTime() : 0;
+		final long bytesBefore = metrics != null && metrics.measureAllocatedBytes() ? AllocatedBytes.current() : -1;
 		try {
-			return cloneInternal(o, clones);
+			final T clone = cloneInternal(o, clones);
+			if (metrics != null) rootCloned(metrics, o.getClass(), clones.size(), start, bytesBefore);
+			return clone;
 		} catch (final IllegalAccessException e) {
 			throw new CloningException("error during cloning of " + o, e);
+		} finally {
+			classification.clonesSizeHint = clones.size();
+			IdentityCloneMap.release(clones);
 		}
 	}
 
@@ -350,244 +631,1512 @@ public class Cloner {
 		if (dumpCloned != null) {
 			dumpCloned.startCloning(o.getClass());
 		}
-		final Map<Object, Object> clones = new IdentityHashMap<Object, Object>(16);
+		final Classification classification = classify(o.getClass());
+		final IdentityCloneMap clones = acquireClones(classification.clonesSizeHint + dontCloneThese.length);
 		for (final Object dc : dontCloneThese) {
 			clones.put(dc, dc);
 		}
+		final int dontClone = clones.size();
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		final long start = metrics != null ? System.nanoTime() : 0;
+		final long bytesBefore = metrics != null && metrics.measureAllocatedBytes() ? AllocatedBytes.current() : -1;
 		try {
-			return cloneInternal(o, clones);
+			final T clone = cloneInternal(o, clones);
+			if (metrics != null) rootCloned(metrics, o.getClass(), clones.size() - dontClone, start, bytesBefore);
+			return clone;
 		} catch (final IllegalAccessException e) {
 			throw new CloningException("error during cloning of " + o, e);
+		} finally {
+			classification.clonesSizeHint = clones.size() - dontClone;
+			IdentityCloneMap.release(clones);
 		}
 	}
 
 	/**
-	 * shallow clones "o". This means that if c=shallowClone(o) then
-	 * c!=o. Any change to c won't affect o.
+	 * deep clones all roots in one pass. Objects reachable from more than one root are cloned
+	 * once and the clones share them, just like objects referenced twice within a single deepClone().
 	 *
-	 * @param <T> the type of o
-	 * @param o   the object to be shallow-cloned
-	 * @return a shallow clone of "o"
+	 * @param <T>   the type of the roots
+	 * @param roots the objects to be deep-cloned
+	 * @return a list with the deep-clones of the roots, in iteration order of roots
 	 */
-	public <T> T shallowClone(final T o) {
-		if (o == null) return null;
-		if (!cloningEnabled) return o;
+	public <T> List<T> deepCloneAll(final Collection<T> roots) {
+		if (roots == null) return null;
+		final List<T> result = new ArrayList<T>(roots);
+		if (!cloningEnabled) return result;
+		final IdentityCloneMap clones = acquireClones(result.size());
 		try {
-			return cloneInternal(o, null);
-		} catch (final IllegalAccessException e) {
-			throw new CloningException("error during cloning of " + o, e);
+			for (int i = 0; i < result.size(); i++) {
+				result.set(i, cloneRoot(result.get(i), clones));
+			}
+		} finally {
+			IdentityCloneMap.release(clones);
 		}
+		return result;
 	}
 
-	// caches immutables for quick reference
-	private final ConcurrentHashMap<Class<?>, Boolean> immutables = new ConcurrentHashMap<Class<?>, Boolean>();
-	private boolean cloneAnonymousParent = true;
-
 	/**
-	 * override this to decide if a class is immutable. Immutable classes are not cloned.
+	 * deep clones all roots in one pass, see deepCloneAll(Collection)
 	 *
-	 * @param clz the class under check
-	 * @return true to mark clz as immutable and skip cloning it
+	 * @param <T>   the type of the roots
+	 * @param roots the objects to be deep-cloned
+	 * @return an array with the deep-clones of the roots
 	 */
-	protected boolean considerImmutable(final Class<?> clz) {
-		return false;
-	}
-
-	protected Class<?> getImmutableAnnotation() {
-		return Immutable.class;
+	@SafeVarargs
+	public final <T> T[] deepCloneAll(final T... roots) {
+		if (roots == null) return null;
+		final T[] result = Arrays.copyOf(roots, roots.length);
+		if (!cloningEnabled) return result;
+		final IdentityCloneMap clones = acquireClones(result.length);
+		try {
+			for (int i = 0; i < result.length; i++) {
+				result[i] = cloneRoot(result[i], clones);
+			}
+		} finally {
+			IdentityCloneMap.release(clones);
+		}
+		return result;
 	}
 
 	/**
-	 * decides if a class is to be considered immutable or not
-	 *
-	 * @param clz the class under check
-	 * @return true if the clz is considered immutable
+	 * @return an empty clones map with the budget of this cloner
 	 */
-	private boolean isImmutable(final Class<?> clz) {
-		final Boolean isIm = immutables.get(clz);
-		if (isIm != null) return isIm;
-		if (considerImmutable(clz)) return true;
+	private IdentityCloneMap acquireClones(final int expectedSize) {
+		final IdentityCloneMap clones = IdentityCloneMap.acquire(expectedSize);
+		clones.budget = cloneBudget;
+		return clones;
+	}
 
-		final Class<?> immutableAnnotation = getImmutableAnnotation();
-		for (final Annotation annotation : clz.getDeclaredAnnotations()) {
-			if (annotation.annotationType() == immutableAnnotation) {
-				immutables.put(clz, Boolean.TRUE);
-				return true;
-			}
+	private <T> T cloneRoot(final T o, final Map<Object, Object> clones) {
+		if (o == null) return null;
+		if (dumpCloned != null) {
+			dumpCloned.startCloning(o.getClass());
 		}
-		Class<?> c = clz.getSuperclass();
-		while (c != null && c != Object.class) {
-			for (final Annotation annotation : c.getDeclaredAnnotations()) {
-				if (annotation.annotationType() == Immutable.class) {
-					final Immutable im = (Immutable) annotation;
-					if (im.subClass()) {
-						immutables.put(clz, Boolean.TRUE);
-						return true;
-					}
-				}
-			}
-			c = c.getSuperclass();
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		final int clonedBefore = clones.size();
+		final long start = metrics != null ? System.nanoTime() : 0;
+		final long bytesBefore = metrics != null && metrics.measureAllocatedBytes() ? AllocatedBytes.current() : -1;
+		try {
+			final T clone = cloneInternal(o, clones);
+			if (metrics != null) rootCloned(metrics, o.getClass(), clones.size() - clonedBefore, start, bytesBefore);
+			return clone;
+		} catch (final IllegalAccessException e) {
+			throw new CloningException("error during cloning of " + o, e);
 		}
-		immutables.put(clz, Boolean.FALSE);
-		return false;
 	}
 
-	@SuppressWarnings("unchecked")
-	protected <T> T cloneInternal(final T o, final Map<Object, Object> clones) throws IllegalAccessException {
-		if (o == null) return null;
-		if (o == this) return null; // don't clone the cloner!
-		if (ignoredInstances.containsKey(o)) return o;
-		if (o instanceof Enum) return o;
-		final Class<T> clz = (Class<T>) o.getClass();
-		// skip cloning ignored classes
-		if (nullInstead.contains(clz)) return null;
-		if (ignored.contains(clz)) return o;
-		for (final Class<?> iClz : ignoredInstanceOf) {
-			if (iClz.isAssignableFrom(clz)) return o;
+	/**
+	 * deep clones src into target, a graph of the same shape i.e. a previous clone of src, to recycle its
+	 * allocations. The fields of target are overwritten in place and its nested objects, arrays and lists
+	 * are reused whenever they are of the same class as the corresponding objects of src (and, for arrays,
+	 * of the same length). Only where they differ new clones are allocated. Maps are reused when they hold
+	 * equal immutable keys in the same order, their values are cloned into the old ones.
+	 *
+	 * An object of target is reused at most once, so a target graph that shares objects where src doesn't
+	 * is never corrupted. Objects that would not be cloned by deepClone (immutables, constants, frozen
+	 * objects) are referenced as deepClone would. With setNullTransient(true) the transient fields of
+	 * reused objects are nulled, or set to 0 if primitive. Lists and maps are only reused if they are
+	 * cloned by the cloner's own fast cloners, and nothing is reused if fastClone() is overridden.
+	 *
+	 * Like deepClone, it recurses once per level of the graph unless setIterativeCloning(true) is set.
+	 *
+	 * @param <T>    the type of src
+	 * @param src    the object to be deep-cloned
+	 * @param target the graph to clone into, can be null
+	 * @return the deep-clone of src: target if it could be reused, a new clone otherwise
+	 */
+	public <T> T deepCloneInto(final T src, final T target) {
+		if (src == null) return null;
+		if (!cloningEnabled) return src;
+		if (dumpCloned != null) {
+			dumpCloned.startCloning(src.getClass());
 		}
-		if (isImmutable(clz)) return o;
-		if (o instanceof IFreezable) {
-			final IFreezable f = (IFreezable) o;
-			if (f.isFrozen()) return o;
+		final Classification classification = classify(src.getClass());
+		final IdentityCloneMap clones = acquireClones(classification.clonesSizeHint);
+		final IdentityCloneMap reused = IdentityCloneMap.acquire(classification.clonesSizeHint);
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		final long start = metrics != null ? System.nanoTime() : 0;
+		final long bytesBefore = metrics != null && metrics.measureAllocatedBytes() ? AllocatedBytes.current() : -1;
+		try {
+			final T clone = cloneInto(src, target, clones, reused);
+			if (metrics != null) rootCloned(metrics, src.getClass(), clones.size(), start, bytesBefore);
+			return clone;
+		} catch (final IllegalAccessException e) {
+			throw new CloningException("error during cloning of " + src, e);
+		} finally {
+			classification.clonesSizeHint = clones.size();
+			IdentityCloneMap.release(reused);
+			IdentityCloneMap.release(clones);
 		}
-		final Object clonedPreviously = clones != null ? clones.get(o) : null;
-		if (clonedPreviously != null) return (T) clonedPreviously;
+	}
 
-		final Object fastClone = fastClone(o, clones);
-		if (fastClone != null) {
-			if (clones != null) {
-				clones.put(o, fastClone);
-			}
-			return (T) fastClone;
-		}
+	/**
+	 * reports a completed deep clone to the metrics listener. Clones that fail, i.e. exceed their budget,
+	 * are not reported
+	 *
+	 * @param bytesBefore the allocated bytes when the clone started, -1 if they are not measured
+	 */
+	private static void rootCloned(final ICloneMetricsListener metrics, final Class<?> clz, final int objects, final long start,
+			final long bytesBefore) {
+		final long nanos = System.nanoTime() - start;
+		final long bytes = bytesBefore >= 0 ? AllocatedBytes.current() - bytesBefore : -1;
+		metrics.rootCloned(clz, objects, nanos, bytes);
+	}
 
+	/**
+	 * deep clones "o" using the threads of pool. Arrays, ArrayLists and HashMaps with more than
+	 * getParallelThreshold() elements are split and their elements are cloned by parallel tasks,
+	 * the rest of the graph is cloned by the thread that reaches it. Objects referenced more than once
+	 * are still cloned only once.
+	 *
+	 * Fast cloners, cloning strategies and the IDumpCloned of this cloner may be called concurrently.
+	 *
+	 * @param <T>  the type of "o"
+	 * @param o    the object to be deep-cloned
+	 * @param pool the pool that will run the cloning tasks
+	 * @return a deep-clone of "o".
+	 */
+	public <T> T deepCloneParallel(final T o, final ForkJoinPool pool) {
+		if (o == null) return null;
+		if (!cloningEnabled) return o;
 		if (dumpCloned != null) {
 			dumpCloned.startCloning(o.getClass());
 		}
-		return cloneWithSilenceRuntimes(o, clones, clz);
-	}
-
-	private <T> T cloneWithSilenceRuntimes(final T o, final Map<Object, Object> clones, final Class<T> clz)
-			throws IllegalAccessException {
-		// this is for using with hibernate(LazyInitializationException) and for robust
-		try {
-			if (clz.isArray()) {
-				return cloneArray(o, clones);
+		final Map<Object, Object> clones = new ConcurrentIdentityMap(1024);
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		final long start = metrics != null ? System.nanoTime() : 0;
+		final T clone = pool.invoke(new RecursiveTask<T>() {
+			@Override
+			protected T compute() {
+				try {
+					return cloneInternal(o, clones);
+				} catch (final IllegalAccessException e) {
+					throw new CloningException("error during cloning of " + o, e);
+				}
 			}
+		});
+		// the clone allocates on the threads of the pool, so its bytes can't be measured
+		if (metrics != null) rootCloned(metrics, o.getClass(), clones.size(), start, -1);
+		return clone;
+	}
 
-			return cloneObject(o, clones, clz);
-		}catch(UnsupportedOperationException e) {
-			LOGGER.debug("cloneWithSilenceRuntimes",e);
-		}catch(RuntimeException e) {
-			LOGGER.error("cloneWithSilenceRuntimes",e);
-		}
-		return null;
-
+	/**
+	 * builds the metadata the cloner caches per class (classification, fields, accessors and the
+	 * instantiator) ahead of the first clone of each class, so that the first clones don't pay for
+	 * reflection. The declared types of the cloned fields are prepared too, if they are concrete
+	 * classes outside the jdk.
+	 *
+	 * Registering immutables, fast cloners etc drops the cached metadata, so prepare after configuring
+	 * the cloner. Classes that can't be prepared are logged and skipped, they will fail again when cloned.
+	 *
+	 * @param classes the classes whose instances will be cloned
+	 */
+	public void prepare(final Class<?>... classes) {
+		prepare(Arrays.asList(classes), null);
 	}
 
-	// clones o, no questions asked!
-	private <T> T cloneObject(T o, Map<Object, Object> clones, Class<T> clz) throws IllegalAccessException {
-		final T newInstance = newInstance(clz);
-		if (clones != null) {
-			clones.put(o, newInstance);
+	/**
+	 * prepares classes like prepare(Class...) using the threads of pool
+	 *
+	 * @param classes the classes whose instances will be cloned
+	 * @param pool    the pool that will prepare them, null to prepare them with the current thread
+	 */
+	public void prepare(final Collection<? extends Class<?>> classes, final ForkJoinPool pool) {
+		final Set<Class<?>> prepared = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+		if (pool == null) {
+			for (final Class<?> clz : classes) {
+				prepare(clz, prepared);
+			}
+			return;
 		}
-		final List<Field> fields = allFields(clz);
-		for (final Field field : fields) {
-			final int modifiers = field.getModifiers();
-			if (!Modifier.isStatic(modifiers)) {
-				if (!(nullTransient && Modifier.isTransient(modifiers))) {
-					// request by Jonathan : transient fields can be null-ed
-					final Object fieldObject = field.get(o);
-					final boolean shouldClone = (cloneSynthetics || !field.isSynthetic()) && (cloneAnonymousParent || !isAnonymousParent(field));
-					final Object fieldObjectClone = clones != null ? (shouldClone ? applyCloningStrategy(clones, o, fieldObject, field) : fieldObject) : fieldObject;
-					field.set(newInstance, fieldObjectClone);
-					if (dumpCloned != null && fieldObjectClone != fieldObject) {
-						dumpCloned.cloning(field, o.getClass());
-					}
+		final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(classes.size());
+		for (final Class<?> clz : classes) {
+			tasks.add(pool.submit(new Runnable() {
+				public void run() {
+					prepare(clz, prepared);
 				}
-			}
+			}));
 		}
-		return newInstance;
+		for (final ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * prepares, see prepare(Class...), the concrete classes of packageName and its sub packages as found by
+	 * the context class loader
+	 *
+	 * @return the classes of the package
+	 */
+	public List<Class<?>> preparePackage(final String packageName) throws IOException {
+		return preparePackage(packageName, null);
 	}
 
-	private Object applyCloningStrategy(Map<Object, Object> clones, Object o, Object fieldObject, Field field) throws IllegalAccessException {
-		for (ICloningStrategy strategy : cloningStrategies) {
-			ICloningStrategy.Strategy s = strategy.strategyFor(o, field);
-			if (s == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE) return null;
-			if (s == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) return fieldObject;
+	/**
+	 * @param pool the pool that will prepare the classes, null to prepare them with the current thread
+	 * @return the classes of the package
+	 * @see #preparePackage(String)
+	 */
+	public List<Class<?>> preparePackage(final String packageName, final ForkJoinPool pool) throws IOException {
+		final List<Class<?>> classes = ClassScanner.classesIn(packageName, classLoader());
+		final List<Class<?>> concrete = new ArrayList<Class<?>>(classes.size());
+		for (final Class<?> clz : classes) {
+			if (!clz.isInterface() && !Modifier.isAbstract(clz.getModifiers())) concrete.add(clz);
 		}
-		return cloneInternal(fieldObject, clones);
+		prepare(concrete, pool);
+		return classes;
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> T cloneArray(T o, Map<Object, Object> clones) throws IllegalAccessException {
-		final Class<T> clz = (Class<T>) o.getClass();
-		final int length = Array.getLength(o);
-		final T newInstance = (T) Array.newInstance(clz.getComponentType(), length);
-		if (clones != null) {
-			clones.put(o, newInstance);
+	/**
+	 * writes the names of the classes this cloner has metadata for, one per line, i.e. on shutdown. Replay
+	 * the list with prepareClassList() on the next start to prepare the classes that were cloned.
+	 */
+	public void writeClassList(final Writer writer) throws IOException {
+		final Set<String> names = new TreeSet<String>();
+		for (final Class<?> clz : classifications.keySet()) {
+			// hidden classes, i.e. lambdas, can't be loaded by name
+			if (!clz.isSynthetic() && clz.getName().indexOf('/') < 0) names.add(clz.getName());
 		}
-		if (clz.getComponentType().isPrimitive() || isImmutable(clz.getComponentType())) {
-			System.arraycopy(o, 0, newInstance, 0, length);
-		} else {
-			for (int i = 0; i < length; i++) {
-				final Object v = Array.get(o, i);
-				final Object clone = clones != null ? cloneInternal(v, clones) : v;
-				Array.set(newInstance, i, clone);
-			}
+		for (final String name : names) {
+			writer.write(name);
+			writer.write('\n');
 		}
-		return newInstance;
+		writer.flush();
 	}
 
-	private boolean isAnonymousParent(final Field field) {
-		return "this$0".equals(field.getName());
+	/**
+	 * prepares, see prepare(Class...), the classes listed by writeClassList(). Classes that can't be
+	 * loaded by the context class loader anymore are skipped.
+	 *
+	 * @return the classes prepared
+	 */
+	public List<Class<?>> prepareClassList(final Reader reader) throws IOException {
+		return prepareClassList(reader, null);
 	}
 
 	/**
-	 * copies all properties from src to dest. Src and dest can be of different class, provided they contain same field names/types
-	 *
-	 * @param src  the source object
-	 * @param dest the destination object which must contain as minimum all the fields of src
+	 * @param pool the pool that will prepare the classes, null to prepare them with the current thread
+	 * @return the classes prepared
+	 * @see #prepareClassList(Reader)
 	 */
-	public <T, E extends T> void copyPropertiesOfInheritedClass(final T src, final E dest) {
-		if (src == null) throw new IllegalArgumentException("src can't be null");
-		if (dest == null) throw new IllegalArgumentException("dest can't be null");
-		final Class<? extends Object> srcClz = src.getClass();
-		final Class<? extends Object> destClz = dest.getClass();
-		if (srcClz.isArray()) {
-			if (!destClz.isArray())
-				throw new IllegalArgumentException("can't copy from array to non-array class " + destClz);
-			final int length = Array.getLength(src);
-			for (int i = 0; i < length; i++) {
-				final Object v = Array.get(src, i);
-				Array.set(dest, i, v);
-			}
-			return;
+	public List<Class<?>> prepareClassList(final Reader reader, final ForkJoinPool pool) throws IOException {
+		final ClassLoader loader = classLoader();
+		final List<Class<?>> classes = new ArrayList<Class<?>>();
+		final BufferedReader in = new BufferedReader(reader);
+		String line;
+		while ((line = in.readLine()) != null) {
+			final String name = line.trim();
+			if (name.isEmpty()) continue;
+			final Class<?> clz = ClassScanner.load(name, loader);
+			if (clz != null) classes.add(clz);
 		}
-		final List<Field> fields = allFields(srcClz);
-		final List<Field> destFields = allFields(dest.getClass());
-		for (final Field field : fields) {
-			if (!Modifier.isStatic(field.getModifiers())) {
-				try {
-					final Object fieldObject = field.get(src);
-					field.setAccessible(true);
-					if (destFields.contains(field)) {
-						field.set(dest, fieldObject);
-					}
-				} catch (final IllegalArgumentException e) {
-					throw new RuntimeException(e);
-				} catch (final IllegalAccessException e) {
-					throw new RuntimeException(e);
+		prepare(classes, pool);
+		return classes;
+	}
+
+	private ClassLoader classLoader() {
+		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		return contextClassLoader != null ? contextClassLoader : getClass().getClassLoader();
+	}
+
+	private void prepare(final Class<?> clz, final Set<Class<?>> prepared) {
+		if (clz.isPrimitive() || !prepared.add(clz)) return;
+		try {
+			final Classification classification = classify(clz);
+			if (classification.kind == Classification.Kind.ARRAY || classification.kind == Classification.Kind.ARRAY_PRIMITIVE) {
+				prepare(clz.getComponentType(), prepared);
+			}
+			if (classification.kind != Classification.Kind.REFLECTIVE) return;
+			final ClonePlan plan = planFor(clz);
+			instantiationStrategy.prepare(clz);
+			for (final FieldAccessor accessor : plan.deep) {
+				Class<?> type = accessor.field.getType();
+				while (type.isArray()) {
+					type = type.getComponentType();
+				}
+				// the jdk's classes are mostly immutable or fast cloned, and their fields private
+				if (type.getClassLoader() != null && !type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+					prepare(accessor.field.getType(), prepared);
 				}
 			}
+		} catch (final IllegalAccessException e) {
+			LOGGER.warn("can't prepare " + clz, e);
+		} catch (final RuntimeException e) {
+			LOGGER.warn("can't prepare " + clz, e);
+		} catch (final LinkageError e) {
+			LOGGER.warn("can't prepare " + clz, e);
 		}
 	}
 
 	/**
-	 * reflection utils
+	 * @return the maximum number of objects a single deep clone may clone, 0 for no limit
 	 */
-	private void addAll(final List<Field> l, final Field[] fields) {
-		for (final Field field : fields) {
+	public int getMaxClonedObjects() {
+		return maxClonedObjects;
+	}
+
+	/**
+	 * limits the number of objects a single deepClone(), deepCloneDontCloneInstances(), deepCloneAll() or
+	 * deepCloneInto() call may clone. A clone exceeding it fails fast with a CloningBudgetExceededException,
+	 * with the path to the field that exceeded it, instead of going on with i.e. an accidental reference
+	 * to a whole ORM session. deepCloneParallel() calls are not limited.
+	 *
+	 * @param maxClonedObjects the maximum number of objects, 0 for no limit (the default)
+	 */
+	public void setMaxClonedObjects(final int maxClonedObjects) {
+		this.maxClonedObjects = maxClonedObjects;
+		budgetChanged();
+	}
+
+	/**
+	 * @return the maximum depth of the objects a single deep clone may clone, 0 for no limit
+	 */
+	public int getMaxCloneDepth() {
+		return maxCloneDepth;
+	}
+
+	/**
+	 * limits how deep below the root the objects a single deep clone clones may be, the root being at depth
+	 * 1, see setMaxClonedObjects()
+	 *
+	 * @param maxCloneDepth the maximum depth, 0 for no limit (the default)
+	 */
+	public void setMaxCloneDepth(final int maxCloneDepth) {
+		this.maxCloneDepth = maxCloneDepth;
+		budgetChanged();
+	}
+
+	/**
+	 * @return the maximum number of bytes a single deep clone may allocate, 0 for no limit
+	 */
+	public long getMaxClonedBytes() {
+		return maxClonedBytes;
+	}
+
+	/**
+	 * limits the bytes a single deep clone may allocate, as estimated from the layout of the jvm (see
+	 * estimateShallowSize()), see setMaxClonedObjects()
+	 *
+	 * @param maxClonedBytes the maximum number of bytes, 0 for no limit (the default)
+	 */
+	public void setMaxClonedBytes(final long maxClonedBytes) {
+		this.maxClonedBytes = maxClonedBytes;
+		budgetChanged();
+	}
+
+	private void budgetChanged() {
+		cloneBudget = CloneBudget.of(maxClonedObjects, maxCloneDepth, maxClonedBytes);
+	}
+
+	public boolean isIterativeCloning() {
+		return iterativeCloning;
+	}
+
+	/**
+	 * if true, objects cloned field by field and arrays are cloned with an explicit work stack instead of
+	 * recursively, so that graphs of any depth (i.e. long linked lists) can be cloned without a
+	 * StackOverflowError. Applies to deepCloneInto() too. Fast cloners, and deepCloneInto() for the lists and
+	 * maps it reuses, still clone their elements recursively. Doesn't apply to deepCloneParallel(). Default is false
+	 */
+	public void setIterativeCloning(final boolean iterativeCloning) {
+		this.iterativeCloning = iterativeCloning;
+	}
+
+	/**
+	 * a copy-on-write clone of "o": a proxy implementing the interfaces of o's class which reads o until
+	 * the first call that may modify it, i.e. a setter or add(). Then o is deep cloned and that call and
+	 * all later ones go to the clone. Objects returned by read only methods (getters, get(), contains(),
+	 * size() etc) declared to return an interface are lazy clones too, which share the deep clone of o once
+	 * either is modified. Other results, i.e. of getters returning a class or an array or of List.get(),
+	 * are deep cloned alone, as a proxy couldn't be cast to their type, and the deep clone of o shares
+	 * them once made. Modifying such a result doesn't make o to be cloned. This makes
+	 * handing out defensive copies of read-mostly objects (i.e. cached ones) almost free, as long as o is
+	 * not modified directly while its lazy clones are in use.
+	 *
+	 * The clone can only be used through an interface type: if o's class implements no interfaces, or
+	 * they can't be proxied, a deep clone is returned instead.
+	 *
+	 * @param <T> the type of "o", should be an interface
+	 * @param o   the object to be cloned
+	 * @return a lazy clone of "o"
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T lazyClone(final T o) {
+		if (o == null) return null;
+		if (!cloningEnabled || isNotCloned(o)) return o;
+		final Object lazyClone = LazyClone.create(this, deepCloner, o);
+		return lazyClone != null ? (T) lazyClone : deepClone(o);
+	}
+
+	/**
+	 * @return true if o is returned as is instead of being cloned, i.e. it is immutable or a constant
+	 */
+	boolean isNotCloned(final Object o) {
+		final Classification classification = classify(o.getClass());
+		return classification.kind == Classification.Kind.IMMUTABLE || ignoredInstances.containsKey(o)
+				|| classification.freezable && ((IFreezable) o).isFrozen();
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * @param parallelThreshold arrays and collections with more elements than this are split into
+	 *                          tasks of at most this many elements by deepCloneParallel(). Default is 8192
+	 */
+	public void setParallelThreshold(final int parallelThreshold) {
+		if (parallelThreshold < 1) throw new IllegalArgumentException("parallelThreshold must be positive");
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * shallow clones "o". This means that if c=shallowClone(o) then
+	 * c!=o. Any change to c won't affect o.
+	 *
+	 * @param <T> the type of o
+	 * @param o   the object to be shallow-cloned
+	 * @return a shallow clone of "o"
+	 */
+	public <T> T shallowClone(final T o) {
+		if (o == null) return null;
+		if (!cloningEnabled) return o;
+		try {
+			return cloneInternal(o, null);
+		} catch (final IllegalAccessException e) {
+			throw new CloningException("error during cloning of " + o, e);
+		}
+	}
+
+	/**
+	 * estimates the bytes o alone takes on the heap, see estimateDeepSize()
+	 *
+	 * @param o the object to size
+	 * @return the estimated size of o without the objects it references, 0 if o is null
+	 */
+	public long estimateShallowSize(final Object o) {
+		if (o == null) return 0;
+		final Class<?> clz = o.getClass();
+		if (clz.isArray()) return ObjectLayout.arraySize(clz.getComponentType(), Array.getLength(o));
+		return ObjectLayout.shallowSize(clz);
+	}
+
+	/**
+	 * estimates the bytes the graph of o retains on the heap, i.e. to weigh cached clones. Objects
+	 * referenced more than once are counted once. Objects this cloner shares rather than clones with
+	 * every graph are not counted: registered constants, enums, classes, frozen objects and instances of
+	 * dontClone() classes, as well as nullInsteadOfClone() ones. Immutables are counted, the graph keeps
+	 * them alive.
+	 *
+	 * Sizes are estimated from the layout of the running jvm and the fields of each class, which are
+	 * resolved once per class. The internals of jdk collections are estimated from their size.
+	 *
+	 * @param o the root of the graph to size
+	 * @return the estimated deep size of o in bytes, 0 if o is null or isn't counted
+	 */
+	public long estimateDeepSize(final Object o) {
+		if (o == null || !sized(o)) return 0;
+		final IdentityCloneMap visited = IdentityCloneMap.acquire(classify(o.getClass()).clonesSizeHint);
+		final ArrayDeque<Object> pending = new ArrayDeque<Object>();
+		long size = 0;
+		try {
+			visited.put(o, Boolean.TRUE);
+			pending.push(o);
+			while (!pending.isEmpty()) {
+				size += sizeAndReferences(pending.pop(), visited, pending);
+			}
+			return size;
+		} catch (final IllegalAccessException e) {
+			throw new CloningException("error during sizing of " + o, e);
+		} finally {
+			IdentityCloneMap.release(visited);
+		}
+	}
+
+	/**
+	 * @return the size of o, after pushing the objects it references that are still to be sized
+	 */
+	private long sizeAndReferences(final Object o, final Map<Object, Object> visited, final ArrayDeque<Object> pending)
+			throws IllegalAccessException {
+		final Class<?> clz = o.getClass();
+		if (clz.isArray()) {
+			if (!clz.getComponentType().isPrimitive()) {
+				for (final Object element : (Object[]) o) {
+					push(element, visited, pending);
+				}
+			}
+			return estimateShallowSize(o);
+		}
+		if (clz == String.class) return ObjectLayout.stringSize((String) o);
+		if (classify(clz).kind == Classification.Kind.FAST_CLONER) {
+			if (o instanceof Collection) {
+				final Collection<?> c = (Collection<?>) o;
+				for (final Object element : c) {
+					push(element, visited, pending);
+				}
+				return ObjectLayout.containerSize(o, c.size());
+			}
+			if (o instanceof Map) {
+				final Map<?, ?> m = (Map<?, ?>) o;
+				for (final Map.Entry<?, ?> e : m.entrySet()) {
+					push(e.getKey(), visited, pending);
+					push(e.getValue(), visited, pending);
+				}
+				return ObjectLayout.containerSize(o, m.size());
+			}
+		}
+		final ClonePlan plan = sizingPlan(clz);
+		if (plan != null) {
+			for (final FieldAccessor accessor : plan.shared) {
+				push(accessor.get(o), visited, pending);
+			}
+			for (final FieldAccessor accessor : plan.deep) {
+				push(accessor.get(o), visited, pending);
+			}
+		}
+		return ObjectLayout.shallowSize(clz);
+	}
+
+	private void push(final Object o, final Map<Object, Object> visited, final ArrayDeque<Object> pending) {
+		if (o == null || visited.containsKey(o) || !sized(o)) return;
+		visited.put(o, Boolean.TRUE);
+		pending.push(o);
+	}
+
+	/**
+	 * @return false if o is shared by all graphs or replaced by null, so it doesn't add to their size
+	 */
+	private boolean sized(final Object o) {
+		if (o == this || o instanceof Class || o instanceof Enum || ignoredInstances.containsKey(o)) return false;
+		final Class<?> clz = o.getClass();
+		final Classification classification = classify(clz);
+		if (classification.kind == Classification.Kind.NULL) return false;
+		if (classification.freezable && ((IFreezable) o).isFrozen()) return false;
+		if (classification.kind != Classification.Kind.IMMUTABLE) return true;
+		if (dontCloneClasses.contains(clz)) return false;
+		for (final Class<?> iClz : ignoredInstanceOf) {
+			if (iClz.isAssignableFrom(clz)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the plan of clz, whose accessors are used to read the references, or null if the fields of
+	 * 		clz can't be read, i.e. jdk classes of modules not opened to the cloner
+	 */
+	private ClonePlan sizingPlan(final Class<?> clz) throws IllegalAccessException {
+		if (unreadable.containsKey(clz)) return null;
+		try {
+			return planFor(clz);
+		} catch (final RuntimeException e) {
+			unreadable.put(clz, Boolean.TRUE);
+			return null;
+		}
+	}
+
+	// caches immutables for quick reference
+	private final ConcurrentHashMap<Class<?>, Boolean> immutables = new ConcurrentHashMap<Class<?>, Boolean>();
+	private volatile boolean cloneAnonymousParent = true;
+
+	/**
+	 * override this to decide if a class is immutable. Immutable classes are not cloned.
+	 *
+	 * @param clz the class under check
+	 * @return true to mark clz as immutable and skip cloning it
+	 */
+	protected boolean considerImmutable(final Class<?> clz) {
+		return false;
+	}
+
+	protected Class<?> getImmutableAnnotation() {
+		return Immutable.class;
+	}
+
+	/**
+	 * decides if a class is to be considered immutable or not
+	 *
+	 * @param clz the class under check
+	 * @return true if the clz is considered immutable
+	 */
+	private boolean isImmutable(final Class<?> clz) {
+		final Boolean isIm = immutables.get(clz);
+		if (isIm != null) return isIm;
+		if (considerImmutable(clz)) return true;
+
+		final Class<?> immutableAnnotation = getImmutableAnnotation();
+		for (final Annotation annotation : clz.getDeclaredAnnotations()) {
+			if (annotation.annotationType() == immutableAnnotation) {
+				immutables.put(clz, Boolean.TRUE);
+				return true;
+			}
+		}
+		Class<?> c = clz.getSuperclass();
+		while (c != null && c != Object.class) {
+			for (final Annotation annotation : c.getDeclaredAnnotations()) {
+				if (annotation.annotationType() == Immutable.class) {
+					final Immutable im = (Immutable) annotation;
+					if (im.subClass()) {
+						immutables.put(clz, Boolean.TRUE);
+						return true;
+					}
+				}
+			}
+			c = c.getSuperclass();
+		}
+		immutables.put(clz, Boolean.FALSE);
+		return false;
+	}
+
+	/**
+	 * @return the cached classification of clz, classifying it the first time an instance of clz is cloned
+	 */
+	private Classification classify(final Class<?> clz) {
+		// read the cache before the registries: if they change meanwhile, the new entry lands in a discarded cache
+		final ConcurrentHashMap<Class<?>, Classification> cache = classifications;
+		final Classification classification = cache.get(clz);
+		if (classification != null) return classification;
+		final Classification newClassification = buildClassification(clz);
+		final Classification previous = cache.putIfAbsent(clz, newClassification);
+		return previous != null ? previous : newClassification;
+	}
+
+	private void classificationsChanged() {
+		// the inferred classes first, a classification is built from them
+		inferredImmutables = new ConcurrentHashMap<Class<?>, Boolean>();
+		classifications = new ConcurrentHashMap<Class<?>, Classification>();
+	}
+
+	/**
+	 * @return true if clz is deeply immutable, see setInferImmutables()
+	 */
+	private boolean isDeeplyImmutable(final Class<?> clz) {
+		final ConcurrentHashMap<Class<?>, Boolean> cache = inferredImmutables;
+		final Boolean cached = cache.get(clz);
+		if (cached != null) return cached;
+		final Map<Class<?>, Boolean> results = new HashMap<Class<?>, Boolean>();
+		final boolean immutable = inferDeeplyImmutable(clz, results);
+		for (final Map.Entry<Class<?>, Boolean> e : results.entrySet()) {
+			// classes found immutable while assuming that the classes being analysed are, only are if clz is
+			if (immutable || !e.getValue()) cache.putIfAbsent(e.getKey(), e.getValue());
+		}
+		return immutable;
+	}
+
+	/**
+	 * @param results the classes analysed so far, classes still being analysed are assumed immutable so that
+	 *                recursive types terminate
+	 */
+	private boolean inferDeeplyImmutable(final Class<?> clz, final Map<Class<?>, Boolean> results) {
+		final Boolean cached = inferredImmutables.get(clz);
+		if (cached != null) return cached;
+		final Boolean known = results.get(clz);
+		if (known != null) return known;
+		results.put(clz, Boolean.TRUE);
+		// plain Objects have no state but are used as locks and markers, so their identity matters
+		boolean immutable = clz != Object.class && !clz.isArray() && !clz.isInterface() && !fastCloners.containsKey(clz);
+		if (immutable) {
+			for (final Field field : allFields(clz)) {
+				final int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers)) continue;
+				if (!Modifier.isFinal(modifiers) || nullTransient && Modifier.isTransient(modifiers) || !isImmutableType(field.getType(), results)) {
+					immutable = false;
+					break;
+				}
+			}
+		}
+		results.put(clz, immutable);
+		return immutable;
+	}
+
+	/**
+	 * @return true if all values of a field of type t are immutable
+	 */
+	private boolean isImmutableType(final Class<?> t, final Map<Class<?>, Boolean> results) {
+		if (t.isPrimitive() || Enum.class.isAssignableFrom(t)) return true;
+		if (nullInstead.contains(t)) return false;
+		if (ignored.contains(t)) return true;
+		for (final Class<?> iClz : ignoredInstanceOf) {
+			if (iClz.isAssignableFrom(t)) return true;
+		}
+		if (isImmutable(t)) return true;
+		// a subclass could be mutable
+		return Modifier.isFinal(t.getModifiers()) && inferDeeplyImmutable(t, results);
+	}
+
+	private Classification buildClassification(final Class<?> clz) {
+		if (Enum.class.isAssignableFrom(clz)) return new Classification(Classification.Kind.IMMUTABLE, false, null);
+		// skip cloning ignored classes
+		if (nullInstead.contains(clz)) return new Classification(Classification.Kind.NULL, false, null);
+		if (ignored.contains(clz)) return new Classification(Classification.Kind.IMMUTABLE, false, null);
+		for (final Class<?> iClz : ignoredInstanceOf) {
+			if (iClz.isAssignableFrom(clz)) return new Classification(Classification.Kind.IMMUTABLE, false, null);
+		}
+		if (isImmutable(clz)) return new Classification(Classification.Kind.IMMUTABLE, false, null);
+		final boolean freezable = IFreezable.class.isAssignableFrom(clz);
+		final IFastCloner fastCloner = fastCloners.get(clz);
+		if (fastCloner != null) return new Classification(Classification.Kind.FAST_CLONER, freezable, fastCloner);
+		if (inferImmutables && isDeeplyImmutable(clz)) return new Classification(Classification.Kind.IMMUTABLE, false, null);
+		if (clz.isArray()) {
+			final Class<?> componentType = clz.getComponentType();
+			final boolean primitive = componentType.isPrimitive() || isImmutable(componentType)
+					|| inferImmutables && Modifier.isFinal(componentType.getModifiers()) && !nullInstead.contains(componentType)
+					&& isDeeplyImmutable(componentType);
+			return new Classification(primitive ? Classification.Kind.ARRAY_PRIMITIVE : Classification.Kind.ARRAY, false, null);
+		}
+		return new Classification(Classification.Kind.REFLECTIVE, freezable, null);
+	}
+
+	protected <T> T cloneInternal(final T o, final Map<Object, Object> clones) throws IllegalAccessException {
+		if (clones instanceof IdentityCloneMap) {
+			final IdentityCloneMap budgeted = (IdentityCloneMap) clones;
+			if (budgeted.budget != null) {
+				budgeted.depth++;
+				try {
+					return cloneNested(o, clones);
+				} finally {
+					budgeted.depth--;
+				}
+			}
+		}
+		return cloneNested(o, clones);
+	}
+
+	/**
+	 * cloneInternal() without the accounting of the depth
+	 */
+	private <T> T cloneNested(final T o, final Map<Object, Object> clones) throws IllegalAccessException {
+		if (iterativeCloning && clones != null && !(clones instanceof ConcurrentIdentityMap)) {
+			final CloneStack stack = clones instanceof IdentityCloneMap ? ((IdentityCloneMap) clones).stack() : new CloneStack();
+			// fast cloners call back into cloneInternal, so the stack may already hold the frames of outer objects
+			final int base = stack.size;
+			final T clone = cloneOrPush(o, clones, stack);
+			return cloneFields(stack, base, clones, null) ? clone : null;
+		}
+		return cloneOrPush(o, clones, null);
+	}
+
+	/**
+	 * clones o. Arrays and objects cloned field by field are cloned recursively if stack is null, otherwise
+	 * only their instance is created and pushed on the stack for their fields to be cloned by cloneFields().
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T cloneOrPush(final T o, final Map<Object, Object> clones, final CloneStack stack) throws IllegalAccessException {
+		if (o == null) return null;
+		if (o == this) return null; // don't clone the cloner!
+		final Class<T> clz = (Class<T>) o.getClass();
+		final Classification classification = classify(clz);
+		// immutables first, they are the most common and need no lookup in the constants
+		if (classification.kind == Classification.Kind.IMMUTABLE) return o;
+		if (ignoredInstances.containsKey(o)) return o;
+		if (classification.kind == Classification.Kind.NULL) return null;
+		if (classification.freezable && ((IFreezable) o).isFrozen()) return o;
+		final Object clonedPreviously = clones != null ? clones.get(o) : null;
+		if (clonedPreviously != null) return (T) clonedPreviously;
+
+		if (classification.kind == Classification.Kind.FAST_CLONER || fastCloneOverridden) {
+			final Object fastClone = clones instanceof ConcurrentIdentityMap ? cloneInParallel(o, clones) : null;
+			final Object clone;
+			try {
+				clone = fastClone != null ? fastClone : fastClone(o, clones);
+			} catch (final CloningBudgetExceededException e) {
+				e.reachedFrom(clz, "[*]");
+				throw e;
+			}
+			if (clone != null) {
+				final ICloneMetricsListener metrics = cloneMetricsListener;
+				if (metrics != null) metrics.objectCloned(clz, true);
+				return (T) (clones != null ? registerClone(clones, o, clone) : clone);
+			}
+		}
+
+		if (dumpCloned != null) {
+			dumpCloned.startCloning(o.getClass());
+		}
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		if (metrics != null) metrics.objectCloned(clz, false);
+		if (stack != null) return pushWithSilenceRuntimes(o, clones, clz, classification, stack);
+		return cloneWithSilenceRuntimes(o, clones, clz, classification);
+	}
+
+	/**
+	 * the iterative counterpart of cloneWithSilenceRuntimes: creates the clone of o, copies the fields that
+	 * need no cloning and pushes o for its deep fields or elements to be cloned by cloneFields()
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T pushWithSilenceRuntimes(final T o, final Map<Object, Object> clones, final Class<T> clz,
+			final Classification classification, final CloneStack stack) throws IllegalAccessException {
+		try {
+			if (classification.kind == Classification.Kind.ARRAY_PRIMITIVE) {
+				return cloneArray(o, clones, true);
+			}
+			if (classification.kind == Classification.Kind.ARRAY) {
+				final T newInstance = (T) Array.newInstance(clz.getComponentType(), Array.getLength(o));
+				checkDepth(clones, stack, clz);
+				registerClone(clones, o, newInstance);
+				stack.push(o, newInstance, null);
+				return newInstance;
+			}
+			final T newInstance = newInstance(clz);
+			checkDepth(clones, stack, clz);
+			registerClone(clones, o, newInstance);
+			final ClonePlan plan = planFor(clz);
+			copyFlatFields(plan, o, newInstance);
+			if (plan.deep.length > 0) stack.push(o, newInstance, plan.deep);
+			return newInstance;
+		} catch (CloningBudgetExceededException e) {
+			throw e;
+		} catch (UnsupportedOperationException e) {
+			LOGGER.debug("cloneWithSilenceRuntimes", e);
+		} catch (RuntimeException e) {
+			LOGGER.error("cloneWithSilenceRuntimes", e);
+		}
+		return null;
+	}
+
+	/**
+	 * checks the depth of the frame about to be pushed on stack against the budget of the clone, if any
+	 */
+	private static void checkDepth(final Map<Object, Object> clones, final CloneStack stack, final Class<?> clz) {
+		if (clones instanceof IdentityCloneMap) {
+			final IdentityCloneMap budgeted = (IdentityCloneMap) clones;
+			if (budgeted.budget != null) budgeted.budget.checkDepth(budgeted.depth + stack.size, clz);
+		}
+	}
+
+	/**
+	 * clones the deep fields and elements of the objects pushed on the stack above base, pushing the
+	 * objects they reference in turn, depth first so that objects are cloned in the same order as by
+	 * the recursive cloning. Needs constant java stack space, whatever the depth of the graph.
+	 *
+	 * Like cloneWithSilenceRuntimes, if cloning the fields of an object throws a RuntimeException the
+	 * reference to its clone is set to null.
+	 *
+	 * @param reused the objects of the target graph already reused if the stack holds frames pushed by
+	 *               cloneIntoOrPush(), whose fields are cloned into the old values of the target
+	 * @return false if cloning the fields of the object at base failed
+	 */
+	private boolean cloneFields(final CloneStack stack, final int base, final Map<Object, Object> clones, final Map<Object, Object> reused)
+			throws IllegalAccessException {
+		boolean succeeded = true;
+		while (stack.size > base) {
+			final int top = stack.size - 1;
+			final Object o = stack.src[top];
+			final Object clone = stack.dest[top];
+			final FieldAccessor[] fields = stack.fields[top];
+			final int i = stack.index[top];
+			final boolean into = stack.into[top];
+			try {
+				if (fields == null) {
+					final Object[] elements = (Object[]) o;
+					final Object[] elementClones = (Object[]) clone;
+					// copy runs of immutables without going through the stack
+					int j = i;
+					Class<?> immutable = null;
+					while (j < elements.length && (elements[j] == null || elements[j].getClass() == immutable
+							|| classify(elements[j].getClass()).kind == Classification.Kind.IMMUTABLE)) {
+						if (elements[j] != null) immutable = elements[j].getClass();
+						elementClones[j] = elements[j];
+						j++;
+					}
+					if (j == elements.length) {
+						stack.truncate(top);
+						continue;
+					}
+					stack.index[top] = j + 1;
+					elementClones[j] = into ? cloneIntoOrPush(elements[j], elementClones[j], clones, reused, stack)
+							: cloneOrPush(elements[j], clones, stack);
+				} else {
+					if (i == fields.length) {
+						stack.truncate(top);
+						continue;
+					}
+					stack.index[top] = i + 1;
+					final FieldAccessor accessor = fields[i];
+					final Object fieldObject = accessor.get(o);
+					final ICloningStrategy.Strategy strategy = strategyFor(o, accessor);
+					final Object fieldObjectClone;
+					if (strategy == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE) fieldObjectClone = null;
+					else if (strategy == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) fieldObjectClone = fieldObject;
+					else if (into) fieldObjectClone = cloneIntoOrPush(fieldObject, accessor.get(clone), clones, reused, stack);
+					else fieldObjectClone = cloneOrPush(fieldObject, clones, stack);
+					accessor.set(clone, fieldObjectClone);
+					if (dumpCloned != null && fieldObjectClone != fieldObject) {
+						dumpCloned.cloning(accessor.field, o.getClass());
+					}
+				}
+			} catch (CloningBudgetExceededException e) {
+				for (int frame = top; frame >= base; frame--) {
+					final int index = stack.index[frame] - 1;
+					final FieldAccessor[] frameFields = stack.fields[frame];
+					if (index < 0) continue;
+					e.reachedFrom(stack.src[frame].getClass(), frameFields == null ? "[" + index + "]" : "." + frameFields[index].field.getName());
+				}
+				stack.truncate(base);
+				throw e;
+			} catch (UnsupportedOperationException e) {
+				LOGGER.debug("cloneWithSilenceRuntimes", e);
+				succeeded &= abandon(stack, top, base);
+			} catch (RuntimeException e) {
+				LOGGER.error("cloneWithSilenceRuntimes", e);
+				succeeded &= abandon(stack, top, base);
+			}
+		}
+		return succeeded;
+	}
+
+	/**
+	 * drops the frame at top and nulls the reference to its clone, as the recursive cloning would return null for it
+	 *
+	 * @return false if the frame was the one at base, whose clone is returned by cloneInternal
+	 */
+	private boolean abandon(final CloneStack stack, final int top, final int base) throws IllegalAccessException {
+		stack.truncate(top);
+		if (top == base) return false;
+		final int parent = top - 1;
+		final int i = stack.index[parent] - 1;
+		final FieldAccessor[] fields = stack.fields[parent];
+		if (fields == null) ((Object[]) stack.dest[parent])[i] = null;
+		else fields[i].set(stack.dest[parent], null);
+		return true;
+	}
+
+	private <T> T cloneWithSilenceRuntimes(final T o, final Map<Object, Object> clones, final Class<T> clz, final Classification classification)
+			throws IllegalAccessException {
+		// this is for using with hibernate(LazyInitializationException) and for robust
+		try {
+			if (classification.kind == Classification.Kind.ARRAY_PRIMITIVE) {
+				return cloneArray(o, clones, true);
+			}
+			if (classification.kind == Classification.Kind.ARRAY) {
+				return cloneArray(o, clones, false);
+			}
+
+			return cloneObject(o, clones, clz);
+		}catch(CloningBudgetExceededException e) {
+			throw e;
+		}catch(UnsupportedOperationException e) {
+			LOGGER.debug("cloneWithSilenceRuntimes",e);
+		}catch(RuntimeException e) {
+			LOGGER.error("cloneWithSilenceRuntimes",e);
+		}
+		return null;
+
+	}
+
+	/**
+	 * registers clone as the clone of o and charges it to the budget of the clone, if any.
+	 *
+	 * @return clone or, when cloning in parallel, the clone another thread registered first
+	 */
+	private static Object registerClone(final Map<Object, Object> clones, final Object o, final Object clone) {
+		if (clones instanceof ConcurrentIdentityMap) {
+			final Object previous = clones.putIfAbsent(o, clone);
+			if (previous != null) return previous;
+		} else {
+			clones.put(o, clone);
+			charge(clones, clone);
+		}
+		return clone;
+	}
+
+	private static void charge(final Map<Object, Object> clones, final Object clone) {
+		if (clones instanceof IdentityCloneMap) {
+			final IdentityCloneMap budgeted = (IdentityCloneMap) clones;
+			if (budgeted.budget != null) budgeted.budget.charge(budgeted, clone);
+		}
+	}
+
+	/**
+	 * splits big ArrayLists and HashMaps into parallel tasks
+	 *
+	 * @return the clone or null if o is not split, in which case its fast cloner should clone it
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object cloneInParallel(final Object o, final Map<Object, Object> clones) throws IllegalAccessException {
+		final Class<?> clz = o.getClass();
+		if (clz == ArrayList.class) {
+			final Object[] elements = ((ArrayList) o).toArray();
+			if (elements.length <= parallelThreshold) return null;
+			cloneElements(elements, elements, clones);
+			return new ArrayList(Arrays.asList(elements));
+		}
+		if (clz == HashMap.class) {
+			final HashMap<Object, Object> m = (HashMap<Object, Object>) o;
+			if (m.size() <= parallelThreshold) return null;
+			final Object[] keysAndValues = new Object[m.size() * 2];
+			int i = 0;
+			for (final Map.Entry<Object, Object> e : m.entrySet()) {
+				keysAndValues[i++] = e.getKey();
+				keysAndValues[i++] = e.getValue();
+			}
+			cloneElements(keysAndValues, keysAndValues, clones);
+			final HashMap result = HashCapacity.newHashMap(m);
+			for (i = 0; i < keysAndValues.length; i += 2) {
+				result.put(keysAndValues[i], keysAndValues[i + 1]);
+			}
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * deep clones src[i] into dest[i], forking tasks if the arrays are big and we are cloning in parallel.
+	 * src and dest can be the same array.
+	 */
+	private void cloneElements(final Object[] src, final Object[] dest, final Map<Object, Object> clones) throws IllegalAccessException {
+		if (src.length > parallelThreshold && clones instanceof ConcurrentIdentityMap && ForkJoinTask.inForkJoinPool()) {
+			new CloneElementsTask(src, dest, 0, src.length, clones).invoke();
+		} else {
+			cloneElements(src, dest, 0, src.length, clones);
+		}
+	}
+
+	/**
+	 * deep clones src[from..to) into dest[from..to). Elements of the same class as the previous immutable
+	 * element are copied without any lookup, so that i.e. arrays of Strings are copied almost as fast
+	 * as by System.arraycopy.
+	 */
+	private void cloneElements(final Object[] src, final Object[] dest, final int from, final int to, final Map<Object, Object> clones)
+			throws IllegalAccessException {
+		Class<?> immutable = null;
+		for (int i = from; i < to; i++) {
+			final Object element = src[i];
+			if (element == null || element.getClass() == immutable) {
+				dest[i] = element;
+			} else if (classify(element.getClass()).kind == Classification.Kind.IMMUTABLE) {
+				immutable = element.getClass();
+				dest[i] = element;
+			} else {
+				try {
+					dest[i] = cloneInternal(element, clones);
+				} catch (final CloningBudgetExceededException e) {
+					e.reachedFrom(src.getClass(), "[" + i + "]");
+					throw e;
+				}
+			}
+		}
+	}
+
+	private class CloneElementsTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object[] src, dest;
+		private final int from, to;
+		private final Map<Object, Object> clones;
+
+		CloneElementsTask(final Object[] src, final Object[] dest, final int from, final int to, final Map<Object, Object> clones) {
+			this.src = src;
+			this.dest = dest;
+			this.from = from;
+			this.to = to;
+			this.clones = clones;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > parallelThreshold) {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new CloneElementsTask(src, dest, from, middle, clones), new CloneElementsTask(src, dest, middle, to, clones));
+				return;
+			}
+			try {
+				cloneElements(src, dest, from, to, clones);
+			} catch (final IllegalAccessException e) {
+				throw new CloningException("error during cloning of " + src.getClass(), e);
+			}
+		}
+	}
+
+	// clones o, no questions asked!
+	@SuppressWarnings("unchecked")
+	private <T> T cloneObject(T o, Map<Object, Object> clones, Class<T> clz) throws IllegalAccessException {
+		final T newInstance = newInstance(clz);
+		if (clones != null) {
+			final Object registered = registerClone(clones, o, newInstance);
+			if (registered != newInstance) return (T) registered;
+		}
+		final ClonePlan plan = planFor(clz);
+		copyFlatFields(plan, o, newInstance);
+		for (final FieldAccessor accessor : plan.deep) {
+			final Object fieldObject = accessor.get(o);
+			final Object fieldObjectClone;
+			try {
+				fieldObjectClone = clones != null ? applyCloningStrategy(clones, o, fieldObject, accessor) : fieldObject;
+			} catch (final CloningBudgetExceededException e) {
+				e.reachedFrom(clz, "." + accessor.field.getName());
+				throw e;
+			}
+			accessor.set(newInstance, fieldObjectClone);
+			if (dumpCloned != null && fieldObjectClone != fieldObject) {
+				dumpCloned.cloning(accessor.field, o.getClass());
+			}
+		}
+		return newInstance;
+	}
+
+	/**
+	 * clones o into target if target can be reused, see deepCloneInto()
+	 *
+	 * @param reused the objects of the target graph already reused
+	 */
+	private <T> T cloneInto(final T o, final T target, final Map<Object, Object> clones, final Map<Object, Object> reused)
+			throws IllegalAccessException {
+		if (clones instanceof IdentityCloneMap) {
+			final IdentityCloneMap budgeted = (IdentityCloneMap) clones;
+			if (budgeted.budget != null) {
+				budgeted.depth++;
+				try {
+					return cloneNestedInto(o, target, clones, reused);
+				} finally {
+					budgeted.depth--;
+				}
+			}
+		}
+		return cloneNestedInto(o, target, clones, reused);
+	}
+
+	/**
+	 * cloneInto() without the accounting of the depth
+	 */
+	private <T> T cloneNestedInto(final T o, final T target, final Map<Object, Object> clones, final Map<Object, Object> reused)
+			throws IllegalAccessException {
+		if (iterativeCloning) {
+			final CloneStack stack = clones instanceof IdentityCloneMap ? ((IdentityCloneMap) clones).stack() : new CloneStack();
+			// listInto() and mapInto() call back into cloneInto, so the stack may already hold the frames of outer objects
+			final int base = stack.size;
+			final T clone = cloneIntoOrPush(o, target, clones, reused, stack);
+			return cloneFields(stack, base, clones, reused) ? clone : null;
+		}
+		return cloneIntoOrPush(o, target, clones, reused, null);
+	}
+
+	/**
+	 * clones o into target if target can be reused, otherwise clones o as cloneOrPush() does. Arrays and
+	 * objects cloned field by field are cloned into recursively if stack is null, otherwise target is
+	 * pushed on the stack for the fields or elements of o to be cloned into its own by cloneFields().
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T cloneIntoOrPush(final T o, final T target, final Map<Object, Object> clones, final Map<Object, Object> reused,
+			final CloneStack stack) throws IllegalAccessException {
+		if (o == null) return null;
+		if (target == null || target == o || target.getClass() != o.getClass() || reused.containsKey(target)) return cloneOrPush(o, clones, stack);
+		final Class<T> clz = (Class<T>) o.getClass();
+		final Classification classification = classify(clz);
+		if (classification.kind == Classification.Kind.IMMUTABLE || classification.kind == Classification.Kind.NULL) return cloneOrPush(o, clones, stack);
+		// an overridden fastClone() may clone any object, which deepClone would return
+		if (fastCloneOverridden || o == this || ignoredInstances.containsKey(o)) return cloneOrPush(o, clones, stack);
+		if (classification.freezable && ((IFreezable) o).isFrozen()) return o;
+		final Object clonedPreviously = clones.get(o);
+		if (clonedPreviously != null) return (T) clonedPreviously;
+
+		switch (classification.kind) {
+			case ARRAY_PRIMITIVE:
+			case ARRAY:
+				final int length = Array.getLength(o);
+				if (length != Array.getLength(target)) return cloneOrPush(o, clones, stack);
+				if (stack != null) checkDepth(clones, stack, clz);
+				reuse(o, target, clones, reused);
+				if (classification.kind == Classification.Kind.ARRAY_PRIMITIVE) {
+					System.arraycopy(o, 0, target, 0, length);
+				} else if (stack != null) {
+					stack.push(o, target, null, true);
+				} else {
+					final Object[] src = (Object[]) o;
+					final Object[] dest = (Object[]) target;
+					for (int i = 0; i < length; i++) {
+						try {
+							dest[i] = cloneInto(src[i], dest[i], clones, reused);
+						} catch (final CloningBudgetExceededException e) {
+							e.reachedFrom(clz, "[" + i + "]");
+							throw e;
+						}
+					}
+				}
+				return target;
+			case FAST_CLONER:
+				// only the jdk's cloners are known to clone element by element, a registered one may not
+				final Class<?> clonerClass = classification.fastCloner.getClass();
+				if (clonerClass == FastClonerArrayList.class) {
+					reuse(o, target, clones, reused);
+					listInto((List<Object>) o, (List<Object>) target, clones, reused);
+					return target;
+				}
+				if ((clonerClass == FastClonerHashMap.class || clonerClass == FastClonerLinkedHashMap.class || clonerClass == FastClonerTreeMap.class)
+						&& sameImmutableKeys((Map<Object, Object>) o, (Map<Object, Object>) target)) {
+					reuse(o, target, clones, reused);
+					mapInto((Map<Object, Object>) o, (Map<Object, Object>) target, clones, reused);
+					return target;
+				}
+				return cloneOrPush(o, clones, stack);
+			default:
+				if (dumpCloned != null) {
+					dumpCloned.startCloning(clz);
+				}
+				if (stack != null) checkDepth(clones, stack, clz);
+				reuse(o, target, clones, reused);
+				final ClonePlan plan = planFor(clz);
+				copyFlatFields(plan, o, target);
+				if (stack != null) {
+					if (plan.deep.length > 0) stack.push(o, target, plan.deep, true);
+					return target;
+				}
+				for (final FieldAccessor accessor : plan.deep) {
+					final Object fieldObject = accessor.get(o);
+					final ICloningStrategy.Strategy s = strategyFor(o, accessor);
+					final Object fieldObjectClone;
+					if (s == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE) fieldObjectClone = null;
+					else if (s == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) fieldObjectClone = fieldObject;
+					else {
+						try {
+							fieldObjectClone = cloneInto(fieldObject, accessor.get(target), clones, reused);
+						} catch (final CloningBudgetExceededException e) {
+							e.reachedFrom(clz, "." + accessor.field.getName());
+							throw e;
+						}
+					}
+					accessor.set(target, fieldObjectClone);
+					if (dumpCloned != null && fieldObjectClone != fieldObject) {
+						dumpCloned.cloning(accessor.field, clz);
+					}
+				}
+				return target;
+		}
+	}
+
+	private void reuse(final Object o, final Object target, final Map<Object, Object> clones, final Map<Object, Object> reused) {
+		clones.put(o, target);
+		charge(clones, target);
+		reused.put(target, Boolean.TRUE);
+		final ICloneMetricsListener metrics = cloneMetricsListener;
+		if (metrics != null) metrics.objectCloned(o.getClass(), false);
+	}
+
+	/**
+	 * clones the elements of src into the ones of dest at the same index, then trims dest or appends the
+	 * clones of the remaining elements
+	 */
+	private void listInto(final List<Object> src, final List<Object> dest, final Map<Object, Object> clones, final Map<Object, Object> reused)
+			throws IllegalAccessException {
+		final int size = src.size();
+		final int common = Math.min(size, dest.size());
+		for (int i = 0; i < common; i++) {
+			dest.set(i, cloneInto(src.get(i), dest.get(i), clones, reused));
+		}
+		if (dest.size() > size) {
+			dest.subList(size, dest.size()).clear();
+		}
+		for (int i = common; i < size; i++) {
+			dest.add(cloneInternal(src.get(i), clones));
+		}
+	}
+
+	/**
+	 * @return true if src and dest have the same size and equal immutable keys in the same iteration order
+	 */
+	private boolean sameImmutableKeys(final Map<Object, Object> src, final Map<Object, Object> dest) {
+		if (src.size() != dest.size()) return false;
+		final Iterator<Object> destKeys = dest.keySet().iterator();
+		for (final Object key : src.keySet()) {
+			final Object destKey = destKeys.next();
+			if (key == null ? destKey != null : !key.equals(destKey)) return false;
+			if (key != null && classify(key.getClass()).kind != Classification.Kind.IMMUTABLE) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * clones the values of src into the ones of dest, which has the same keys in the same order
+	 */
+	private void mapInto(final Map<Object, Object> src, final Map<Object, Object> dest, final Map<Object, Object> clones,
+			final Map<Object, Object> reused) throws IllegalAccessException {
+		final Iterator<Map.Entry<Object, Object>> destEntries = dest.entrySet().iterator();
+		for (final Map.Entry<Object, Object> e : src.entrySet()) {
+			final Map.Entry<Object, Object> destEntry = destEntries.next();
+			destEntry.setValue(cloneInto(e.getValue(), destEntry.getValue(), clones, reused));
+		}
+	}
+
+	/**
+	 * copies the primitive fields and the fields that are not cloned and clears the skipped ones, which
+	 * newInstance may have set if it was created by a constructor or is a reused target
+	 */
+	private static void copyFlatFields(final ClonePlan plan, final Object o, final Object newInstance) throws IllegalAccessException {
+		for (final PrimitiveFieldCopier copier : plan.primitives) {
+			copier.copy(o, newInstance);
+		}
+		for (final FieldAccessor accessor : plan.shared) {
+			accessor.set(newInstance, accessor.get(o));
+		}
+		for (final FieldAccessor accessor : plan.skipped) {
+			accessor.clear(newInstance);
+		}
+	}
+
+	/**
+	 * @return the cached plan for cloning instances of clz, building it the first time clz is cloned
+	 */
+	private ClonePlan planFor(final Class<?> clz) throws IllegalAccessException {
+		final ConcurrentHashMap<Class<?>, ClonePlan> cache = plans;
+		final ClonePlan plan = cache.get(clz);
+		if (plan != null) return plan;
+		final ClonePlan newPlan = buildPlan(clz);
+		final ClonePlan previous = cache.putIfAbsent(clz, newPlan);
+		return previous != null ? previous : newPlan;
+	}
+
+	private void plansChanged() {
+		plans = new ConcurrentHashMap<Class<?>, ClonePlan>();
+	}
+
+	private ClonePlan buildPlan(final Class<?> clz) throws IllegalAccessException {
+		final List<PrimitiveFieldCopier> primitives = new ArrayList<PrimitiveFieldCopier>();
+		final List<FieldAccessor> shared = new ArrayList<FieldAccessor>();
+		final List<FieldAccessor> deep = new ArrayList<FieldAccessor>();
+		final List<FieldAccessor> skipped = new ArrayList<FieldAccessor>();
+		for (final Field field : allFields(clz)) {
+			final int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers)) continue;
+			// request by Jonathan : transient fields can be null-ed
+			if (nullTransient && Modifier.isTransient(modifiers)) {
+				skipped.add(new FieldAccessor(field));
+				continue;
+			}
+			if (field.getType().isPrimitive()) {
+				primitives.add(new PrimitiveFieldCopier(field));
+				continue;
+			}
+			final boolean shouldClone = (cloneSynthetics || !field.isSynthetic()) && (cloneAnonymousParent || !isAnonymousParent(field));
+			if (shouldClone) deep.add(deepFieldAccessor(field));
+			else shared.add(new FieldAccessor(field));
+		}
+		return new ClonePlan(clz, primitives.toArray(new PrimitiveFieldCopier[primitives.size()]),
+				shared.toArray(new FieldAccessor[shared.size()]), deep.toArray(new FieldAccessor[deep.size()]),
+				skipped.toArray(new FieldAccessor[skipped.size()]));
+	}
+
+	/**
+	 * @return the accessor of a deep cloned field, with the decision of the first IFieldCloningStrategy that
+	 * 		doesn't IGNORE it and the per instance strategies registered before that one
+	 */
+	private FieldAccessor deepFieldAccessor(final Field field) throws IllegalAccessException {
+		final List<ICloningStrategy> instanceStrategies = new ArrayList<ICloningStrategy>();
+		ICloningStrategy.Strategy decided = null;
+		for (final ICloningStrategy strategy : cloningStrategies) {
+			if (strategy instanceof IFieldCloningStrategy) {
+				final ICloningStrategy.Strategy s = ((IFieldCloningStrategy) strategy).strategyFor(field);
+				if (s == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE || s == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) {
+					decided = s;
+					break;
+				}
+			} else {
+				instanceStrategies.add(strategy);
+			}
+		}
+		return new FieldAccessor(field, instanceStrategies.toArray(new ICloningStrategy[instanceStrategies.size()]), decided);
+	}
+
+	private Object applyCloningStrategy(Map<Object, Object> clones, Object o, Object fieldObject, FieldAccessor accessor) throws IllegalAccessException {
+		final ICloningStrategy.Strategy s = strategyFor(o, accessor);
+		if (s == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE) return null;
+		if (s == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) return fieldObject;
+		return cloneInternal(fieldObject, clones);
+	}
+
+	/**
+	 * @return the strategy of the first per instance strategy that doesn't IGNORE the field, or else the one
+	 * 		decided when the plan was built, null to clone the field
+	 */
+	private static ICloningStrategy.Strategy strategyFor(final Object o, final FieldAccessor accessor) {
+		for (final ICloningStrategy strategy : accessor.instanceStrategies) {
+			final ICloningStrategy.Strategy s = strategy.strategyFor(o, accessor.field);
+			if (s == ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE || s == ICloningStrategy.Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE) return s;
+		}
+		return accessor.strategy;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T cloneArray(T o, Map<Object, Object> clones, final boolean primitive) throws IllegalAccessException {
+		final Class<T> clz = (Class<T>) o.getClass();
+		final int length = Array.getLength(o);
+		final T newInstance = (T) Array.newInstance(clz.getComponentType(), length);
+		if (clones != null) {
+			final Object registered = registerClone(clones, o, newInstance);
+			if (registered != newInstance) return (T) registered;
+		}
+		if (primitive || clones == null) {
+			System.arraycopy(o, 0, newInstance, 0, length);
+		} else {
+			cloneElements((Object[]) o, (Object[]) newInstance, clones);
+		}
+		return newInstance;
+	}
+
+	private boolean isAnonymousParent(final Field field) {
+		return "this$0".equals(field.getName());
+	}
+
+	/**
+	 * copies all properties from src to dest. Src and dest can be of different class, provided they contain same field names/types
+	 *
+	 * @param src  the source object
+	 * @param dest the destination object which must contain as minimum all the fields of src
+	 */
+	public <T, E extends T> void copyPropertiesOfInheritedClass(final T src, final E dest) {
+		if (src == null) throw new IllegalArgumentException("src can't be null");
+		if (dest == null) throw new IllegalArgumentException("dest can't be null");
+		final Class<? extends Object> srcClz = src.getClass();
+		final Class<? extends Object> destClz = dest.getClass();
+		if (srcClz.isArray()) {
+			if (!destClz.isArray())
+				throw new IllegalArgumentException("can't copy from array to non-array class " + destClz);
+			final int length = Array.getLength(src);
+			for (int i = 0; i < length; i++) {
+				final Object v = Array.get(src, i);
+				Array.set(dest, i, v);
+			}
+			return;
+		}
+		try {
+			propertyCopier(srcClz, destClz).copy(src, dest);
+		} catch (final IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the cached copier of the non static fields of srcClz that destClz has too
+	 */
+	private PropertyCopier propertyCopier(final Class<?> srcClz, final Class<?> destClz) throws IllegalAccessException {
+		ConcurrentHashMap<Class<?>, PropertyCopier> byDest = propertyCopiers.get(srcClz);
+		if (byDest == null) {
+			byDest = new ConcurrentHashMap<Class<?>, PropertyCopier>();
+			final ConcurrentHashMap<Class<?>, PropertyCopier> previous = propertyCopiers.putIfAbsent(srcClz, byDest);
+			if (previous != null) byDest = previous;
+		}
+		final PropertyCopier copier = byDest.get(destClz);
+		if (copier != null) return copier;
+		final PropertyCopier newCopier = buildPropertyCopier(srcClz, destClz);
+		final PropertyCopier previous = byDest.putIfAbsent(destClz, newCopier);
+		return previous != null ? previous : newCopier;
+	}
+
+	private PropertyCopier buildPropertyCopier(final Class<?> srcClz, final Class<?> destClz) throws IllegalAccessException {
+		final Set<Field> destFields = new HashSet<Field>(allFields(destClz));
+		final List<PrimitiveFieldCopier> primitives = new ArrayList<PrimitiveFieldCopier>();
+		final List<FieldAccessor> references = new ArrayList<FieldAccessor>();
+		for (final Field field : allFields(srcClz)) {
+			if (Modifier.isStatic(field.getModifiers()) || !destFields.contains(field)) continue;
+			if (field.getType().isPrimitive()) primitives.add(new PrimitiveFieldCopier(field));
+			else references.add(new FieldAccessor(field));
+		}
+		return new PropertyCopier(primitives.toArray(new PrimitiveFieldCopier[primitives.size()]),
+				references.toArray(new FieldAccessor[references.size()]));
+	}
+
+	/**
+	 * reflection utils
+	 */
+	private void addAll(final List<Field> l, final Field[] fields) {
+		for (final Field field : fields) {
 			if (!field.isAccessible()) {
 				field.setAccessible(true);
 			}
@@ -597,18 +2146,21 @@ public class Cloner {
 
 	/**
 	 * reflection utils, override this to choose which fields to clone
+	 *
+	 * @return an unmodifiable, array backed list of the fields of c and its superclasses
 	 */
 	protected List<Field> allFields(final Class<?> c) {
 		List<Field> l = fieldsCache.get(c);
 		if (l == null) {
-			l = new LinkedList<Field>();
-			final Field[] fields = c.getDeclaredFields();
-			addAll(l, fields);
+			final List<Field> fields = new ArrayList<Field>();
+			addAll(fields, c.getDeclaredFields());
 			Class<?> sc = c;
 			while ((sc = sc.getSuperclass()) != Object.class && sc != null) {
-				addAll(l, sc.getDeclaredFields());
+				addAll(fields, sc.getDeclaredFields());
 			}
-			fieldsCache.putIfAbsent(c, l);
+			l = Collections.unmodifiableList(Arrays.asList(fields.toArray(new Field[fields.size()])));
+			final List<Field> previous = fieldsCache.putIfAbsent(c, l);
+			if (previous != null) l = previous;
 		}
 		return l;
 	}
@@ -651,6 +2203,7 @@ public class Cloner {
 	 */
 	public void setCloneAnonymousParent(final boolean cloneAnonymousParent) {
 		this.cloneAnonymousParent = cloneAnonymousParent;
+		plansChanged();
 	}
 
 	public boolean isCloneAnonymousParent() {
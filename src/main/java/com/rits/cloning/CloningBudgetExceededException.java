@@ -0,0 +1,60 @@
+package com.rits.cloning;
+
+/**
+ * thrown when a deep clone exceeds one of the limits of its cloner, see Cloner.setMaxClonedObjects(),
+ * Cloner.setMaxCloneDepth() and Cloner.setMaxClonedBytes(). The path leads from the class of the
+ * cloned root to the object that exceeded the limit, i.e. Order.customer.sessions[*].context where
+ * [3] is an array or list index and [*] an element of another collection or map.
+ */
+public class CloningBudgetExceededException extends CloningException
+{
+	private static final long	serialVersionUID	= 1L;
+
+	private final String		limit;
+	private String				root;
+	private String				path	= "";
+
+	CloningBudgetExceededException(final String limit, final Class<?> clz)
+	{
+		super(limit, null);
+		this.limit = limit;
+		this.root = name(clz);
+	}
+
+	/**
+	 * prepends segment, the field or element of an instance of parent that led to the current path
+	 */
+	void reachedFrom(final Class<?> parent, final String segment)
+	{
+		path = segment + path;
+		root = name(parent);
+	}
+
+	private static String name(final Class<?> clz)
+	{
+		final String simpleName = clz.getSimpleName();
+		return simpleName.isEmpty() ? clz.getName() : simpleName;
+	}
+
+	/**
+	 * @return the limit that was exceeded, i.e. "more than 1000 objects"
+	 */
+	public String getLimit()
+	{
+		return limit;
+	}
+
+	/**
+	 * @return the path from the root to the object that exceeded the limit
+	 */
+	public String getPath()
+	{
+		return root + path;
+	}
+
+	@Override
+	public String getMessage()
+	{
+		return "clone budget exceeded, " + limit + " at " + getPath();
+	}
+}
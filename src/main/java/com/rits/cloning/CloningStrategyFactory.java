@@ -3,12 +3,13 @@ package com.rits.cloning;
 import java.lang.reflect.Field;
 
 public class CloningStrategyFactory {
+	/**
+	 * @return a strategy for the fields annotated with annotationClass. It only depends on the field, so it is
+	 * 		an IFieldCloningStrategy and is applied without any call per cloned object.
+	 */
 	public static ICloningStrategy annotatedField(final Class annotationClass, final ICloningStrategy.Strategy strategy) {
-		return new ICloningStrategy() {
-			public Strategy strategyFor(Object toBeCloned, Field field) {
-				if (toBeCloned == null) {
-					return Strategy.IGNORE;
-				}
+		return new IFieldCloningStrategy() {
+			public Strategy strategyFor(Field field) {
 				if (field.getDeclaredAnnotation(annotationClass) != null) {
 					return strategy;
 				}
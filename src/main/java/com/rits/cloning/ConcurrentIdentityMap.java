@@ -0,0 +1,99 @@
+package com.rits.cloning;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * a thread safe map that compares keys by identity, used as the clones map when one graph is
+ * cloned by many threads (Cloner.deepCloneParallel). putIfAbsent is atomic, so 2 threads reaching
+ * the same object agree on a single clone of it.
+ */
+final class ConcurrentIdentityMap extends AbstractMap<Object, Object> {
+	private final ConcurrentHashMap<IdentityKey, Object> map;
+
+	ConcurrentIdentityMap(final int initialCapacity) {
+		map = new ConcurrentHashMap<IdentityKey, Object>(initialCapacity);
+	}
+
+	@Override
+	public Object get(final Object key) {
+		return map.get(new IdentityKey(key));
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return map.containsKey(new IdentityKey(key));
+	}
+
+	@Override
+	public Object put(final Object key, final Object value) {
+		return map.put(new IdentityKey(key), value);
+	}
+
+	@Override
+	public Object putIfAbsent(final Object key, final Object value) {
+		return map.putIfAbsent(new IdentityKey(key), value);
+	}
+
+	@Override
+	public Object remove(final Object key) {
+		return map.remove(new IdentityKey(key));
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+	}
+
+	/**
+	 * @return a snapshot of the entries
+	 */
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		// a list, not a HashSet which would merge the entries of equal but not identical keys
+		final List<Map.Entry<Object, Object>> entries = new ArrayList<Map.Entry<Object, Object>>(map.size());
+		for (final Map.Entry<IdentityKey, Object> e : map.entrySet()) {
+			entries.add(new SimpleImmutableEntry<Object, Object>(e.getKey().o, e.getValue()));
+		}
+		return new AbstractSet<Map.Entry<Object, Object>>() {
+			@Override
+			public Iterator<Map.Entry<Object, Object>> iterator() {
+				return entries.iterator();
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+		};
+	}
+
+	private static final class IdentityKey {
+		private final Object o;
+
+		IdentityKey(final Object o) {
+			this.o = o;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(o);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof IdentityKey && ((IdentityKey) obj).o == o;
+		}
+	}
+}
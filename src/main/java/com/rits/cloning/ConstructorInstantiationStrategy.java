@@ -0,0 +1,99 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * instantiates classes with a non private no-arg constructor by calling it through a cached method
+ * handle, which the jit can inline, and the rest with a fallback strategy (Objenesis by default):
+ *
+ * <pre>
+ * Cloner cloner = new Cloner(new ConstructorInstantiationStrategy());
+ * </pre>
+ *
+ * Unlike Objenesis this runs the constructors, including the field initializers, whose results the
+ * cloner then overwrites, or nulls for the transient fields when it nulls transient fields. It is faster for classes with cheap constructors and slower for ones that
+ * allocate, i.e. initialize collections, which is why it isn't the default.
+ */
+public class ConstructorInstantiationStrategy implements IInstantiationStrategy
+{
+	private static final MethodType	NO_ARG	= MethodType.methodType(Object.class);
+
+	private final IInstantiationStrategy	fallback;
+
+	/**
+	 * the no-arg constructor of each class, null for classes instantiated by the fallback
+	 */
+	private final ClassValue<MethodHandle>	constructors	= new ClassValue<MethodHandle>()
+	{
+		@Override
+		protected MethodHandle computeValue(final Class<?> type)
+		{
+			return constructor(type);
+		}
+	};
+
+	public ConstructorInstantiationStrategy()
+	{
+		this(ObjenesisInstantiationStrategy.getInstance());
+	}
+
+	/**
+	 * @param fallback instantiates classes without a non private no-arg constructor
+	 */
+	public ConstructorInstantiationStrategy(final IInstantiationStrategy fallback)
+	{
+		this.fallback = fallback;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T newInstance(final Class<T> c)
+	{
+		final MethodHandle constructor = constructors.get(c);
+		if (constructor == null) return fallback.newInstance(c);
+		try
+		{
+			return (T) constructor.invokeExact();
+		} catch (final RuntimeException e)
+		{
+			throw e;
+		} catch (final Error e)
+		{
+			throw e;
+		} catch (final Throwable e)
+		{
+			throw new CloningException("error instantiating " + c, e);
+		}
+	}
+
+	public void prepare(final Class<?> c)
+	{
+		if (constructors.get(c) == null) fallback.prepare(c);
+	}
+
+	private static MethodHandle constructor(final Class<?> type)
+	{
+		if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) return null;
+		try
+		{
+			final Constructor<?> constructor = type.getDeclaredConstructor();
+			// private constructors usually guard singletons or factories
+			if (Modifier.isPrivate(constructor.getModifiers())) return null;
+			constructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(constructor).asType(NO_ARG);
+		} catch (final NoSuchMethodException e)
+		{
+			return null;
+		} catch (final IllegalAccessException e)
+		{
+			return null;
+		} catch (final RuntimeException e)
+		{
+			// i.e. the class' module isn't open to us
+			return null;
+		}
+	}
+}
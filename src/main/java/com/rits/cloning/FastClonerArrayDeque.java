@@ -0,0 +1,22 @@
+package com.rits.cloning;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * clones ArrayDeques into pre-sized ones, keeping the order of the elements
+ */
+public class FastClonerArrayDeque implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final ArrayDeque<Object> d = (ArrayDeque) t;
+		if (FastClonerHashSet.allImmutable(d, cloner)) return d.clone();
+		final ArrayDeque result = new ArrayDeque(d.size());
+		for (final Object o : d)
+		{
+			result.add(cloner.deepClone(o, clones));
+		}
+		return result;
+	}
+}
@@ -13,10 +13,23 @@ public class FastClonerArrayList implements IFastCloner
 	@SuppressWarnings({ "unchecked", "rawtypes" })
     public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
 		final ArrayList al = (ArrayList) t;
-		final ArrayList l = new ArrayList(al.size());
-		for (final Object o : al)
+		final int size = al.size();
+		int i = 0;
+		Class<?> immutable = null;
+		for (; i < size; i++)
 		{
-        		final Object cloneInternal = cloner.deepClone(o, clones);
+			final Object o = al.get(i);
+			if (o == null || o.getClass() == immutable) continue;
+			if (!cloner.isImmutable(o.getClass())) break;
+			immutable = o.getClass();
+		}
+		// a list of immutables, i.e. Strings, is copied in bulk
+		if (i == size) return new ArrayList(al);
+		final ArrayList l = new ArrayList(size);
+		l.addAll(al.subList(0, i));
+		for (; i < size; i++)
+		{
+        		final Object cloneInternal = cloner.deepClone(al.get(i), clones);
         		l.add(cloneInternal);
 		}
 		return l;
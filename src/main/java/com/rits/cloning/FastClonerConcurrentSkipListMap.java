@@ -0,0 +1,25 @@
+package com.rits.cloning;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * clones ConcurrentSkipListMaps keeping their comparator. Maps of immutables are cloned with clone(),
+ * which builds the clone from the sorted entries without comparing the keys.
+ */
+public class FastClonerConcurrentSkipListMap implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final ConcurrentSkipListMap<Object, Object> m = (ConcurrentSkipListMap) t;
+		if (FastClonerHashMap.immutableKeys(m, cloner) && FastClonerHashMap.immutableValues(m, cloner)) return m.clone();
+		final ConcurrentSkipListMap result = new ConcurrentSkipListMap(m.comparator());
+		for (final Map.Entry e : m.entrySet())
+		{
+			final Object key = cloner.deepClone(e.getKey(), clones);
+			final Object value = cloner.deepClone(e.getValue(), clones);
+			result.put(key, value);
+		}
+		return result;
+	}
+}
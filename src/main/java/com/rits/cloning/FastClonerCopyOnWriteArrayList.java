@@ -0,0 +1,24 @@
+package com.rits.cloning;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * clones CopyOnWriteArrayLists from a snapshot of their elements, so the list can be modified
+ * while it is cloned
+ */
+public class FastClonerCopyOnWriteArrayList implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final CopyOnWriteArrayList<Object> l = (CopyOnWriteArrayList) t;
+		final Object[] elements = l.toArray();
+		if (FastClonerHashSet.allImmutable(Arrays.asList(elements), cloner)) return new CopyOnWriteArrayList(elements);
+		for (int i = 0; i < elements.length; i++)
+		{
+			elements[i] = cloner.deepClone(elements[i], clones);
+		}
+		return new CopyOnWriteArrayList(elements);
+	}
+}
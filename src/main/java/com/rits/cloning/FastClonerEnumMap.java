@@ -0,0 +1,25 @@
+package com.rits.cloning;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * clones EnumMaps. The keys are enums, so the map is cloned as is and only its values are
+ * replaced by their clones.
+ */
+public class FastClonerEnumMap implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final EnumMap m = (EnumMap) t;
+		final EnumMap<?, Object> result = m.clone();
+		if (!FastClonerHashSet.allImmutable(result.values(), cloner))
+		{
+			for (final Map.Entry<?, Object> e : result.entrySet())
+			{
+				e.setValue(cloner.deepClone(e.getValue(), clones));
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,15 @@
+package com.rits.cloning;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * clones EnumSets, whose elements are immutable. EnumSet's implementations are package private,
+ * see Cloner.registerFastCloners() for how they are registered.
+ */
+public class FastClonerEnumSet implements IFastCloner
+{
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		return ((EnumSet<?>) t).clone();
+	}
+}
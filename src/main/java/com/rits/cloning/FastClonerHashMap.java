@@ -13,7 +13,14 @@ public class FastClonerHashMap implements IFastCloner
 	@SuppressWarnings({ "unchecked", "rawtypes" })
     public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
 		final HashMap<Object, Object> m = (HashMap) t;
-		final HashMap result = new HashMap();
+		if (immutableKeys(m, cloner))
+		{
+			// same keys, same buckets: clone the table and replace the values in place
+			final HashMap<Object, Object> result = (HashMap) m.clone();
+			if (!immutableValues(m, cloner)) cloneValues(result, cloner, clones);
+			return result;
+		}
+		final HashMap result = HashCapacity.newHashMap(m);
 		for (final Map.Entry e : m.entrySet())
 		{
             final Object key = cloner.deepClone(e.getKey(), clones);
@@ -23,4 +30,38 @@ public class FastClonerHashMap implements IFastCloner
 		}
 		return result;
 	}
+
+	/**
+	 * replaces the values of a clone of a map with their clones. Setting values doesn't touch the
+	 * buckets, so the map doesn't rehash and, if it is access ordered, doesn't reorder.
+	 */
+	static void cloneValues(final Map<Object, Object> result, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		for (final Map.Entry<Object, Object> e : result.entrySet())
+		{
+			e.setValue(cloner.deepClone(e.getValue(), clones));
+		}
+	}
+
+	static boolean immutableKeys(final Map<Object, Object> m, final IDeepCloner cloner) {
+		// keys are usually of one class, remember the last immutable one
+		Class<?> immutable = null;
+		for (final Object key : m.keySet())
+		{
+			if (key == null || key.getClass() == immutable) continue;
+			if (!cloner.isImmutable(key.getClass())) return false;
+			immutable = key.getClass();
+		}
+		return true;
+	}
+
+	static boolean immutableValues(final Map<Object, Object> m, final IDeepCloner cloner) {
+		Class<?> immutable = null;
+		for (final Object value : m.values())
+		{
+			if (value == null || value.getClass() == immutable) continue;
+			if (!cloner.isImmutable(value.getClass())) return false;
+			immutable = value.getClass();
+		}
+		return true;
+	}
 }
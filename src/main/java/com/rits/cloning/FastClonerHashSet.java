@@ -13,7 +13,8 @@ public class FastClonerHashSet implements IFastCloner
 	@SuppressWarnings({ "unchecked", "rawtypes" })
     public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
 		final HashSet al = (HashSet) t;
-		final HashSet l = new HashSet();
+		if (allImmutable(al, cloner)) return al.clone();
+		final HashSet l = HashCapacity.newHashSet(al);
 		for (final Object o : al)
 		{
             final Object cloneInternal = cloner.deepClone(o, clones);
@@ -21,4 +22,19 @@ public class FastClonerHashSet implements IFastCloner
 		}
 		return l;
 	}
+
+	/**
+	 * @return true if all elements of c are immutable or null, usually they are of one class so
+	 * 		only the last immutable class is remembered
+	 */
+	static boolean allImmutable(final Iterable<?> c, final IDeepCloner cloner) {
+		Class<?> immutable = null;
+		for (final Object o : c)
+		{
+			if (o == null || o.getClass() == immutable) continue;
+			if (!cloner.isImmutable(o.getClass())) return false;
+			immutable = o.getClass();
+		}
+		return true;
+	}
 }
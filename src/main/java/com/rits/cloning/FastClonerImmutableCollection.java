@@ -0,0 +1,137 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * clones the collections of List.of, Set.of and Map.of. Their factories are looked up by method handles
+ * so that the cloner still runs on jvms without them. Collections of immutables are shared, as they
+ * can't be modified.
+ */
+public abstract class FastClonerImmutableCollection implements IFastCloner
+{
+	private static final MethodHandle LIST_OF = factory(List.class, "of", Object[].class);
+	private static final MethodHandle SET_OF = factory(Set.class, "of", Object[].class);
+	private static final MethodHandle MAP_OF_ENTRIES = factory(Map.class, "ofEntries", Map.Entry[].class);
+
+	/**
+	 * @return a cloner of List.of's lists, null if there is no List.of
+	 */
+	static IFastCloner list() {
+		return LIST_OF == null ? null : new FastClonerImmutableCollection()
+		{
+			@Override
+			protected boolean copyable(final Collection<?> c) {
+				// Stream.toList() lists are ListNs too but allow nulls, i.e. contains(null) returns false
+				// where a List.of list throws. List.of would change that, leave them to reflective cloning
+				try {
+					((List<?>) c).indexOf(null);
+					return false;
+				} catch (final NullPointerException e) {
+					return true;
+				}
+			}
+
+			@Override
+			protected Object copyOf(final Object[] elements) throws Throwable {
+				return (List<?>) LIST_OF.invokeExact(elements);
+			}
+		};
+	}
+
+	/**
+	 * @return a cloner of Set.of's sets, null if there is no Set.of
+	 */
+	static IFastCloner set() {
+		return SET_OF == null ? null : new FastClonerImmutableCollection()
+		{
+			@Override
+			protected Object copyOf(final Object[] elements) throws Throwable {
+				return (Set<?>) SET_OF.invokeExact(elements);
+			}
+		};
+	}
+
+	/**
+	 * @return a cloner of Map.of's maps, null if there is no Map.ofEntries
+	 */
+	static IFastCloner map() {
+		return MAP_OF_ENTRIES == null ? null : new IFastCloner()
+		{
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+				final Map<Object, Object> m = (Map) t;
+				if (FastClonerHashMap.immutableKeys(m, cloner) && FastClonerHashMap.immutableValues(m, cloner)) return t;
+				final Map.Entry[] entries = new Map.Entry[m.size()];
+				int i = 0;
+				for (final Map.Entry e : m.entrySet())
+				{
+					final Object key = cloner.deepClone(e.getKey(), clones);
+					final Object value = cloner.deepClone(e.getValue(), clones);
+					if (key == null || value == null) return null;
+					entries[i++] = new AbstractMap.SimpleImmutableEntry(key, value);
+				}
+				return invoke(MAP_OF_ENTRIES, entries);
+			}
+		};
+	}
+
+	protected abstract Object copyOf(Object[] elements) throws Throwable;
+
+	/**
+	 * @return false if the factory of copyOf() can't create a collection that behaves as c does
+	 */
+	protected boolean copyable(final Collection<?> c) {
+		return true;
+	}
+
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final Collection<?> c = (Collection<?>) t;
+		if (FastClonerHashSet.allImmutable(c, cloner)) return t;
+		if (!copyable(c)) return null;
+		final Object[] elements = c.toArray();
+		for (int i = 0; i < elements.length; i++)
+		{
+			elements[i] = cloner.deepClone(elements[i], clones);
+			// the factories don't allow nulls, i.e. a clone was nulled by a cloning strategy
+			if (elements[i] == null) return null;
+		}
+		try {
+			return copyOf(elements);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error cloning " + t.getClass(), e);
+		}
+	}
+
+	private static Object invoke(final MethodHandle factory, final Map.Entry<?, ?>[] entries) {
+		try {
+			return (Map<?, ?>) factory.invokeExact(entries);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error cloning a Map.of map", e);
+		}
+	}
+
+	private static MethodHandle factory(final Class<?> type, final String name, final Class<?> parameter) {
+		try {
+			return MethodHandles.publicLookup().findStatic(type, name, MethodType.methodType(type, parameter));
+		} catch (final NoSuchMethodException e) {
+			return null;
+		} catch (final IllegalAccessException e) {
+			return null;
+		}
+	}
+}
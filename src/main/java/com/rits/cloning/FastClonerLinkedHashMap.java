@@ -11,8 +11,14 @@ import java.util.Map;
 public class FastClonerLinkedHashMap implements IFastCloner {
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
-		final LinkedHashMap<?, ?> al = (LinkedHashMap) t;
-		final LinkedHashMap result = new LinkedHashMap();
+		final LinkedHashMap<Object, Object> al = (LinkedHashMap) t;
+		if (FastClonerHashMap.immutableKeys(al, cloner)) {
+			// the clone keeps the order, the access order flag and the capacity
+			final LinkedHashMap<Object, Object> result = (LinkedHashMap) al.clone();
+			if (!FastClonerHashMap.immutableValues(al, cloner)) FastClonerHashMap.cloneValues(result, cloner, clones);
+			return result;
+		}
+		final LinkedHashMap result = HashCapacity.newLinkedHashMap(al);
 		for (final Map.Entry e : al.entrySet()) {
 			final Object key = cloner.deepClone(e.getKey(), clones);
 			final Object value = cloner.deepClone(e.getValue(), clones);
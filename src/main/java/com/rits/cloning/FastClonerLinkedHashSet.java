@@ -0,0 +1,22 @@
+package com.rits.cloning;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * clones LinkedHashSets keeping their order, capacity and load factor
+ */
+public class FastClonerLinkedHashSet implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final LinkedHashSet<Object> s = (LinkedHashSet) t;
+		if (FastClonerHashSet.allImmutable(s, cloner)) return s.clone();
+		final LinkedHashSet result = HashCapacity.newLinkedHashSet(s);
+		for (final Object o : s)
+		{
+			result.add(cloner.deepClone(o, clones));
+		}
+		return result;
+	}
+}
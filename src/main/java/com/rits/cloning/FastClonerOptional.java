@@ -0,0 +1,18 @@
+package com.rits.cloning;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * clones Optionals holding mutable values. Empty ones and ones holding immutables are shared.
+ */
+public class FastClonerOptional implements IFastCloner
+{
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final Optional<?> o = (Optional<?>) t;
+		if (!o.isPresent()) return o;
+		final Object value = o.get();
+		final Object clone = cloner.deepClone(value, clones);
+		return clone == value ? o : Optional.ofNullable(clone);
+	}
+}
@@ -0,0 +1,24 @@
+package com.rits.cloning;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * clones PriorityQueues keeping their comparator. The elements are added in the order of the queue's
+ * heap, which is already a valid heap, so no element is moved.
+ */
+public class FastClonerPriorityQueue implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final PriorityQueue<Object> q = (PriorityQueue) t;
+		// copies the heap as is
+		if (FastClonerHashSet.allImmutable(q, cloner)) return new PriorityQueue(q);
+		final PriorityQueue result = new PriorityQueue(Math.max(1, q.size()), q.comparator());
+		for (final Object o : q)
+		{
+			result.add(cloner.deepClone(o, clones));
+		}
+		return result;
+	}
+}
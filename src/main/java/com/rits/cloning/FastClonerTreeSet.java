@@ -0,0 +1,23 @@
+package com.rits.cloning;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * clones TreeSets keeping their comparator. Sets of immutables are cloned with clone(), which
+ * builds the tree from the sorted elements without comparing them.
+ */
+public class FastClonerTreeSet implements IFastCloner
+{
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		final TreeSet<Object> s = (TreeSet) t;
+		if (FastClonerHashSet.allImmutable(s, cloner)) return s.clone();
+		final TreeSet result = new TreeSet(s.comparator());
+		for (final Object o : s)
+		{
+			result.add(cloner.deepClone(o, clones));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * clones the Collections.unmodifiable* wrappers by cloning the collection they wrap and wrapping the
+ * clone. The wrapped collection goes through the clones map, so a graph that holds both a collection
+ * and an unmodifiable view of it gets a view of the cloned collection.
+ */
+public class FastClonerUnmodifiable implements IFastCloner
+{
+	private static final MethodType TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final MethodHandle wrapped;
+	private final MethodHandle wrap;
+
+	/**
+	 * @param wrapped reads the collection a wrapper wraps
+	 * @param wrap    creates a wrapper of a collection, i.e. Collections.unmodifiableList
+	 */
+	public FastClonerUnmodifiable(final MethodHandle wrapped, final MethodHandle wrap) {
+		this.wrapped = wrapped.asType(TYPE);
+		this.wrap = wrap.asType(TYPE);
+	}
+
+	/**
+	 * @param wrapperClass the wrapper's class, i.e. java.util.Collections$UnmodifiableCollection
+	 * @param field        the wrapper's field that holds the wrapped collection
+	 * @param wrapMethod   the method of Collections that creates the wrapper, i.e. unmodifiableList
+	 * @param type         the parameter type of wrapMethod
+	 * @return a fast cloner for the wrappers or null if java.util isn't open to us
+	 */
+	static FastClonerUnmodifiable of(final String wrapperClass, final String field, final String wrapMethod, final Class<?> type) {
+		try {
+			final Field f = Class.forName(wrapperClass).getDeclaredField(field);
+			f.setAccessible(true);
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			return new FastClonerUnmodifiable(lookup.unreflectGetter(f),
+					lookup.findStatic(Collections.class, wrapMethod, MethodType.methodType(type, type)));
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+		try {
+			final Object w = wrapped.invokeExact(t);
+			final Object clone = cloner.deepClone(w, clones);
+			// a view of an immutable or shared collection can be shared too
+			return clone == w ? t : wrap.invokeExact(clone);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error cloning " + t.getClass(), e);
+		}
+	}
+}
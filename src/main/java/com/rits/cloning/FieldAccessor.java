@@ -0,0 +1,110 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+/**
+ * reads and writes one field through method handles which are resolved once, when the
+ * owning ClonePlan is built, instead of going through Field.get/Field.set on every clone.
+ * Accessors of deep cloned fields also carry the cloning strategies that apply to the field.
+ */
+final class FieldAccessor {
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ICloningStrategy[] NO_STRATEGIES = new ICloningStrategy[0];
+
+	final Field field;
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+	/**
+	 * the per instance strategies to ask, in order, before applying strategy
+	 */
+	final ICloningStrategy[] instanceStrategies;
+	/**
+	 * the decision of the field's IFieldCloningStrategy, null if the field is cloned
+	 */
+	final ICloningStrategy.Strategy strategy;
+	/**
+	 * null or, for primitive fields, the boxed zero the field is reset to by clear()
+	 */
+	private final Object defaultValue;
+
+	FieldAccessor(final Field field) throws IllegalAccessException {
+		this(field, NO_STRATEGIES, null);
+	}
+
+	FieldAccessor(final Field field, final ICloningStrategy[] instanceStrategies, final ICloningStrategy.Strategy strategy)
+			throws IllegalAccessException {
+		this.field = field;
+		this.getter = getter(field, GETTER_TYPE);
+		this.setter = setter(field, SETTER_TYPE);
+		this.instanceStrategies = instanceStrategies;
+		this.strategy = strategy;
+		this.defaultValue = field.getType().isPrimitive() ? Array.get(Array.newInstance(field.getType(), 1), 0) : null;
+	}
+
+	Object get(final Object o) throws IllegalAccessException {
+		try {
+			return getter.invokeExact(o);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final IllegalAccessException e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error reading " + field, e);
+		}
+	}
+
+	void set(final Object o, final Object value) throws IllegalAccessException {
+		try {
+			setter.invokeExact(o, value);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final IllegalAccessException e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error writing " + field, e);
+		}
+	}
+
+	/**
+	 * sets the field of o to null or, if it is primitive, to 0/false
+	 */
+	void clear(final Object o) throws IllegalAccessException {
+		set(o, defaultValue);
+	}
+
+	static MethodHandle getter(final Field field, final MethodType type) throws IllegalAccessException {
+		try {
+			return MethodHandles.lookup().unreflectGetter(field).asType(type);
+		} catch (final IllegalAccessException e) {
+			// i.e. fields of hidden classes, fall back to plain reflection
+			return reflective(field, "get", GETTER_TYPE).asType(type);
+		}
+	}
+
+	static MethodHandle setter(final Field field, final MethodType type) throws IllegalAccessException {
+		try {
+			return MethodHandles.lookup().unreflectSetter(field).asType(type);
+		} catch (final IllegalAccessException e) {
+			// i.e. final fields of records, Field.set will report the actual problem upon cloning
+			return reflective(field, "set", SETTER_TYPE).asType(type);
+		}
+	}
+
+	private static MethodHandle reflective(final Field field, final String name, final MethodType type) throws IllegalAccessException {
+		try {
+			return MethodHandles.publicLookup().findVirtual(Field.class, name, type).bindTo(field);
+		} catch (final NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.rits.cloning;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * asks the cloning-processor annotation processor to generate an ITypedFastCloner for the class at
+ * compile time. The generated cloner copies the fields directly or through their getters and setters
+ * and is found by every Cloner via ServiceLoader, so instances of the class are never cloned
+ * reflectively.
+ *
+ * The class needs a non private no-arg constructor and its fields must be non final and either non
+ * private or accessible via a getter and a setter. Subclasses are not covered, they are cloned as usual.
+ * Like other fast cloners, the generated ones don't apply cloning strategies or setNullTransient to the
+ * fields of the class.
+ */
+@Target(TYPE)
+@Retention(CLASS)
+public @interface GenerateCloner
+{
+}
@@ -0,0 +1,91 @@
+package com.rits.cloning;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * creates empty HashMaps, LinkedHashMaps, HashSets and LinkedHashSets with the table size, load factor
+ * and access order of the ones they will be clones of, so that filling them never resizes. The internals
+ * are read reflectively; if java.util isn't open to us the capacity is derived from the size and the
+ * load factor and access order fall back to the defaults.
+ */
+final class HashCapacity {
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+	private static final Field TABLE = field(HashMap.class, "table");
+	private static final Field LOAD_FACTOR = field(HashMap.class, "loadFactor");
+	private static final Field ACCESS_ORDER = field(LinkedHashMap.class, "accessOrder");
+	private static final Field SET_MAP = field(HashSet.class, "map");
+
+	private HashCapacity() {
+	}
+
+	static <K, V> HashMap<K, V> newHashMap(final HashMap<?, ?> like) {
+		final float loadFactor = loadFactor(like);
+		return new HashMap<K, V>(capacity(like, loadFactor), loadFactor);
+	}
+
+	static <K, V> LinkedHashMap<K, V> newLinkedHashMap(final LinkedHashMap<?, ?> like) {
+		final float loadFactor = loadFactor(like);
+		return new LinkedHashMap<K, V>(capacity(like, loadFactor), loadFactor, accessOrder(like));
+	}
+
+	static <E> HashSet<E> newHashSet(final HashSet<?> like) {
+		final HashMap<?, ?> map = (HashMap<?, ?>) get(SET_MAP, like);
+		if (map == null) return new HashSet<E>(capacity(like.size(), DEFAULT_LOAD_FACTOR));
+		final float loadFactor = loadFactor(map);
+		return new HashSet<E>(capacity(map, loadFactor), loadFactor);
+	}
+
+	static <E> LinkedHashSet<E> newLinkedHashSet(final LinkedHashSet<?> like) {
+		final HashMap<?, ?> map = (HashMap<?, ?>) get(SET_MAP, like);
+		if (map == null) return new LinkedHashSet<E>(capacity(like.size(), DEFAULT_LOAD_FACTOR));
+		final float loadFactor = loadFactor(map);
+		return new LinkedHashSet<E>(capacity(map, loadFactor), loadFactor);
+	}
+
+	private static int capacity(final HashMap<?, ?> m, final float loadFactor) {
+		final Object[] table = (Object[]) get(TABLE, m);
+		// the table is allocated lazily, by the first put
+		return table != null ? table.length : capacity(m.size(), loadFactor);
+	}
+
+	private static int capacity(final int size, final float loadFactor) {
+		return (int) (size / loadFactor) + 1;
+	}
+
+	private static float loadFactor(final HashMap<?, ?> m) {
+		final Object loadFactor = get(LOAD_FACTOR, m);
+		return loadFactor != null ? (Float) loadFactor : DEFAULT_LOAD_FACTOR;
+	}
+
+	private static boolean accessOrder(final LinkedHashMap<?, ?> m) {
+		final Object accessOrder = get(ACCESS_ORDER, m);
+		return accessOrder != null && (Boolean) accessOrder;
+	}
+
+	private static Object get(final Field field, final Object o) {
+		if (field == null) return null;
+		try {
+			return field.get(o);
+		} catch (final IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static Field field(final Class<?> clz, final String name) {
+		try {
+			final Field field = clz.getDeclaredField(name);
+			field.setAccessible(true);
+			return field;
+		} catch (final NoSuchFieldException e) {
+			return null;
+		} catch (final RuntimeException e) {
+			// java.util is not opened to us
+			return null;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.rits.cloning;
+
+/**
+ * receives metrics of the cloning done by a Cloner, see Cloner.setCloneMetricsListener(). Methods
+ * are called on the cloning threads, possibly concurrently, so implementations must be thread safe
+ * and cheap. CloneMetrics is an implementation that aggregates the metrics per class.
+ */
+public interface ICloneMetricsListener
+{
+	/**
+	 * @return true for the cloner to measure the bytes allocated by each deep clone. Needs a jvm
+	 * 		that supports per thread allocation counters (i.e. HotSpot), otherwise -1 is reported.
+	 */
+	boolean measureAllocatedBytes();
+
+	/**
+	 * an object of class clz was cloned, either by a fast cloner or field by field (reflectively)
+	 */
+	void objectCloned(Class<?> clz, boolean fastCloned);
+
+	/**
+	 * a deep clone of an object of class clz completed. Not called for clones that throw, though the
+	 * objects they cloned before failing are reported by objectCloned()
+	 *
+	 * @param clz            the class of the object passed to deepClone
+	 * @param objects        the number of objects cloned
+	 * @param nanos          the time the clone took
+	 * @param allocatedBytes the bytes allocated by the cloning thread, -1 if not measured
+	 */
+	void rootCloned(Class<?> clz, int objects, long nanos, long allocatedBytes);
+}
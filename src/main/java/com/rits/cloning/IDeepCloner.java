@@ -17,4 +17,14 @@ public interface IDeepCloner {
      * @return a clone of o
      */
     <T> T deepClone(final T o, final Map<Object, Object> clones);
+
+    /**
+     * lets fast cloners copy elements in bulk when none of them needs cloning
+     *
+     * @param clz the class under check
+     * @return true if deepClone() returns instances of clz as they are, i.e. clz is immutable. false if it can't tell
+     */
+    default boolean isImmutable(final Class<?> clz) {
+        return false;
+    }
 }
@@ -0,0 +1,23 @@
+package com.rits.cloning;
+
+import java.lang.reflect.Field;
+
+/**
+ * a cloning strategy that decides by the field alone, whatever the instance being cloned. The cloner
+ * asks it once per field, when it plans how to clone the field's class, instead of once per cloned
+ * object, so any number of them costs nothing while cloning.
+ *
+ * Register it like any other ICloningStrategy. Strategies are still consulted in registration order:
+ * per instance strategies registered before it are called for each object and only if they IGNORE
+ * the field is its decision applied.
+ */
+public interface IFieldCloningStrategy extends ICloningStrategy {
+	/**
+	 * @return the strategy for field, IGNORE to leave the decision to the next strategies
+	 */
+	Strategy strategyFor(Field field);
+
+	default Strategy strategyFor(final Object toBeCloned, final Field field) {
+		return strategyFor(field);
+	}
+}
@@ -8,4 +8,11 @@ package com.rits.cloning;
 public interface IInstantiationStrategy
 {
 	<T> T newInstance(final Class<T> c);
+
+	/**
+	 * creates ahead of time whatever newInstance(c) needs, see Cloner.prepare(). Does nothing by default.
+	 */
+	default void prepare(final Class<?> c)
+	{
+	}
 }
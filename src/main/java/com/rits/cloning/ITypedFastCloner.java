@@ -0,0 +1,13 @@
+package com.rits.cloning;
+
+/**
+ * a fast cloner that knows the class it clones. Implementations listed in
+ * META-INF/services/com.rits.cloning.ITypedFastCloner are registered by every Cloner on construction,
+ * which is how the cloners generated for @GenerateCloner classes are picked up.
+ */
+public interface ITypedFastCloner extends IFastCloner {
+	/**
+	 * @return the class this cloner clones, subclasses are not cloned by it
+	 */
+	Class<?> type();
+}
@@ -0,0 +1,321 @@
+package com.rits.cloning;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * the clones map of a single deepClone call: an open addressing map comparing keys by identity,
+ * with keys and values interleaved in one array (like IdentityHashMap) so that a lookup touches
+ * consecutive slots.
+ *
+ * Instances are pooled: acquire() hands out an empty map, sized for the expected number of clones,
+ * and release() clears it in place and makes it available to the next call. The pool is a small
+ * array of slots taken and returned with compare-and-set, it doesn't depend on the calling
+ * thread so it works the same for platform and virtual threads.
+ */
+final class IdentityCloneMap extends AbstractMap<Object, Object> {
+	private static final Object NULL_KEY = new Object();
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 29;
+	/**
+	 * bigger maps are left to the garbage collector instead of being pooled
+	 */
+	private static final int MAX_POOLED_CAPACITY = 1 << 16;
+	private static final AtomicReferenceArray<IdentityCloneMap> POOL = new AtomicReferenceArray<IdentityCloneMap>(
+			Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * key, value, key, value...
+	 */
+	private Object[] table;
+	private int size;
+	private int threshold;
+	/**
+	 * the work stack of iterative cloning, pooled with the map
+	 */
+	private CloneStack stack;
+	/**
+	 * the limits of the clone, null if it has none, see CloneBudget
+	 */
+	CloneBudget budget;
+	/**
+	 * the nesting of cloneInternal calls, the objects cloned and their estimated bytes, only counted if
+	 * there is a budget. The map itself also holds objects that aren't cloned, i.e. the instances passed
+	 * to deepCloneDontCloneInstances(), so its size can't be used as the count of clones
+	 */
+	int depth;
+	int cloned;
+	long bytes;
+
+	IdentityCloneMap(final int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * @param expectedSize the expected number of clones
+	 * @return an empty map, either from the pool or a new one
+	 */
+	static IdentityCloneMap acquire(final int expectedSize) {
+		final int length = POOL.length();
+		final int start = (int) (Thread.currentThread().getId() % length);
+		for (int i = 0; i < length; i++) {
+			final int slot = (start + i) % length;
+			if (POOL.get(slot) != null) {
+				final IdentityCloneMap map = POOL.getAndSet(slot, null);
+				if (map != null) {
+					map.ensureCapacity(expectedSize);
+					return map;
+				}
+			}
+		}
+		return new IdentityCloneMap(expectedSize);
+	}
+
+	/**
+	 * clears map and returns it to the pool. map must not be used after this call.
+	 */
+	static void release(final IdentityCloneMap map) {
+		if (map.capacity() > MAX_POOLED_CAPACITY) return;
+		map.recycle();
+		final int length = POOL.length();
+		final int start = (int) (Thread.currentThread().getId() % length);
+		for (int i = 0; i < length; i++) {
+			if (POOL.compareAndSet((start + i) % length, null, map)) return;
+		}
+	}
+
+	private static int capacityFor(final int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		// keep the load factor at or below 1/2 so that probe sequences stay short
+		while (capacity < MAX_CAPACITY && capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static Object maskNull(final Object key) {
+		return key == null ? NULL_KEY : key;
+	}
+
+	private static Object unmaskNull(final Object key) {
+		return key == NULL_KEY ? null : key;
+	}
+
+	/**
+	 * @return an even index for the key, the same spreading IdentityHashMap uses
+	 */
+	private static int index(final Object key, final int length) {
+		final int h = System.identityHashCode(key);
+		return ((h << 1) - (h << 8)) & (length - 1);
+	}
+
+	private static int next(final int i, final int length) {
+		return i + 2 < length ? i + 2 : 0;
+	}
+
+	private int capacity() {
+		return table.length >> 1;
+	}
+
+	private void allocate(final int capacity) {
+		table = new Object[capacity * 2];
+		threshold = capacity / 2;
+	}
+
+	private void ensureCapacity(final int expectedSize) {
+		final int capacity = capacityFor(expectedSize);
+		if (capacity > capacity()) {
+			if (size == 0) allocate(capacity);
+			else resize(capacity);
+		}
+	}
+
+	/**
+	 * clears the map in place. If it grew a lot bigger than what its last graph needed, a smaller
+	 * table is allocated instead, so that clearing a pooled map stays proportional to its use.
+	 */
+	private void recycle() {
+		budget = null;
+		depth = 0;
+		cloned = 0;
+		bytes = 0;
+		if (stack != null) {
+			if (stack.src.length > MAX_POOLED_CAPACITY) stack = null;
+			else stack.truncate(0);
+		}
+		final int needed = capacityFor(size);
+		if (capacity() > needed * 8) {
+			allocate(needed);
+		} else if (size > 0) {
+			Arrays.fill(table, null);
+		}
+		size = 0;
+	}
+
+	/**
+	 * @return the work stack of this clone, see Cloner.setIterativeCloning()
+	 */
+	CloneStack stack() {
+		if (stack == null) stack = new CloneStack();
+		return stack;
+	}
+
+	private void resize(final int newCapacity) {
+		final Object[] old = table;
+		allocate(newCapacity);
+		final Object[] tab = table;
+		final int length = tab.length;
+		for (int j = 0; j < old.length; j += 2) {
+			final Object key = old[j];
+			if (key != null) {
+				int i = index(key, length);
+				while (tab[i] != null) {
+					i = next(i, length);
+				}
+				tab[i] = key;
+				tab[i + 1] = old[j + 1];
+			}
+		}
+	}
+
+	@Override
+	public Object get(final Object key) {
+		final Object k = maskNull(key);
+		final Object[] tab = table;
+		final int length = tab.length;
+		int i = index(k, length);
+		while (true) {
+			final Object item = tab[i];
+			if (item == k) return tab[i + 1];
+			if (item == null) return null;
+			i = next(i, length);
+		}
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		final Object k = maskNull(key);
+		final Object[] tab = table;
+		final int length = tab.length;
+		int i = index(k, length);
+		while (true) {
+			final Object item = tab[i];
+			if (item == k) return true;
+			if (item == null) return false;
+			i = next(i, length);
+		}
+	}
+
+	@Override
+	public Object put(final Object key, final Object value) {
+		return put(key, value, true);
+	}
+
+	@Override
+	public Object putIfAbsent(final Object key, final Object value) {
+		return put(key, value, false);
+	}
+
+	private Object put(final Object key, final Object value, final boolean replace) {
+		final Object k = maskNull(key);
+		final Object[] tab = table;
+		final int length = tab.length;
+		int i = index(k, length);
+		Object item;
+		while ((item = tab[i]) != null) {
+			if (item == k) {
+				final Object old = tab[i + 1];
+				if (replace || old == null) tab[i + 1] = value;
+				return old;
+			}
+			i = next(i, length);
+		}
+		tab[i] = k;
+		tab[i + 1] = value;
+		if (++size > threshold) resize(capacity() * 2);
+		return null;
+	}
+
+	@Override
+	public Object remove(final Object key) {
+		final Object k = maskNull(key);
+		final Object[] tab = table;
+		final int length = tab.length;
+		int i = index(k, length);
+		while (true) {
+			final Object item = tab[i];
+			if (item == k) {
+				final Object old = tab[i + 1];
+				size--;
+				tab[i] = null;
+				tab[i + 1] = null;
+				closeDeletion(i);
+				return old;
+			}
+			if (item == null) return null;
+			i = next(i, length);
+		}
+	}
+
+	/**
+	 * moves back the entries following a deleted slot so that no probe sequence is broken
+	 */
+	private void closeDeletion(int d) {
+		final Object[] tab = table;
+		final int length = tab.length;
+		Object item;
+		for (int i = next(d, length); (item = tab[i]) != null; i = next(i, length)) {
+			final int r = index(item, length);
+			if ((i < r && (r <= d || d <= i)) || (r <= d && d <= i)) {
+				tab[d] = item;
+				tab[d + 1] = tab[i + 1];
+				tab[i] = null;
+				tab[i + 1] = null;
+				d = i;
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) Arrays.fill(table, null);
+		size = 0;
+	}
+
+	/**
+	 * @return a snapshot of the entries
+	 */
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		final List<Map.Entry<Object, Object>> entries = new ArrayList<Map.Entry<Object, Object>>(size);
+		final Object[] tab = table;
+		for (int i = 0; i < tab.length; i += 2) {
+			if (tab[i] != null) {
+				entries.add(new SimpleImmutableEntry<Object, Object>(unmaskNull(tab[i]), tab[i + 1]));
+			}
+		}
+		return new AbstractSet<Map.Entry<Object, Object>>() {
+			@Override
+			public Iterator<Map.Entry<Object, Object>> iterator() {
+				return entries.iterator();
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+		};
+	}
+}
@@ -0,0 +1,186 @@
+package com.rits.cloning;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * a copy-on-write clone, see Cloner.lazyClone(). It is a proxy over the interfaces of the original
+ * object which reads the original until a method that may modify it is called. Then the original is
+ * deep cloned once and all calls, through the proxy or any view it handed out, go to the clone.
+ *
+ * Calls are considered read only by their names: getters (get*, is*, has* without parameters, but not
+ * getAnd*), get, contains*, size, isEmpty, length, charAt, compareTo, equals, hashCode and toString.
+ * Their results are handed out as lazy clones too (or as deep clones if they can't be proxied), so that
+ * the original can't be reached through them either. Results declared as a class, an array or Object
+ * (i.e. List.get(), whose caller may cast it to a class) can't be proxied: those are deep cloned alone,
+ * without the rest of the graph, and the clone of the original shares them once it is made. Modifying
+ * them doesn't materialize the clone, reads through the proxy go on reading the original.
+ */
+final class LazyClone implements InvocationHandler {
+	private final Session session;
+	private final Object original;
+	/**
+	 * the clone of original once the session is materialized
+	 */
+	private Object clone;
+
+	private LazyClone(final Session session, final Object original) {
+		this.session = session;
+		this.original = original;
+	}
+
+	/**
+	 * @return a lazy clone of o or null if o's class implements no interface it can be proxied with
+	 */
+	static Object create(final Cloner cloner, final IDeepCloner deepCloner, final Object o) {
+		return new Session(cloner, deepCloner, o).view(o);
+	}
+
+	public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+		final Object[] unwrapped = unwrap(args);
+		final boolean readOnly = isReadOnly(method);
+		final Object target;
+		synchronized (session) {
+			if (!readOnly) session.materialize();
+			target = target();
+		}
+		if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) method.setAccessible(true);
+		final Object result = call(method, target, unwrapped);
+		if (target != original || result == null || result == target) return result == target ? proxy : result;
+		synchronized (session) {
+			if (session.cloner.isNotCloned(result)) return result;
+			// the session might have been materialized meanwhile, then result is part of the original graph
+			if (session.materialized || !method.getReturnType().isInterface()) return session.cloneOf(result);
+			return session.view(result);
+		}
+	}
+
+	private static Object call(final Method method, final Object target, final Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (final InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * @return the object calls are delegated to, original until the session is materialized
+	 */
+	private Object target() {
+		if (!session.materialized) return original;
+		if (clone == null) clone = session.cloneOf(original);
+		return clone;
+	}
+
+	private static Object[] unwrap(final Object[] args) {
+		if (args == null) return null;
+		Object[] unwrapped = args;
+		for (int i = 0; i < args.length; i++) {
+			final Object arg = args[i];
+			if (arg != null && Proxy.isProxyClass(arg.getClass()) && Proxy.getInvocationHandler(arg) instanceof LazyClone) {
+				final LazyClone handler = (LazyClone) Proxy.getInvocationHandler(arg);
+				if (unwrapped == args) unwrapped = args.clone();
+				synchronized (handler.session) {
+					unwrapped[i] = handler.target();
+				}
+			}
+		}
+		return unwrapped;
+	}
+
+	private static boolean isReadOnly(final Method method) {
+		final String name = method.getName();
+		final boolean returns = method.getReturnType() != void.class;
+		// get(key) or get(index) of maps and lists
+		if (returns && name.equals("get")) return true;
+		if (returns && method.getParameterTypes().length == 0 && !startsWithWord(name, "getAnd")
+				&& (startsWithWord(name, "get") || startsWithWord(name, "is") || startsWithWord(name, "has"))) return true;
+		if (name.startsWith("contains")) return true;
+		return name.equals("size") || name.equals("isEmpty") || name.equals("length") || name.equals("charAt")
+				|| name.equals("compareTo") || name.equals("equals") || name.equals("hashCode") || name.equals("toString");
+	}
+
+	/**
+	 * @return true if name is prefix or prefix followed by a capitalized word, i.e. getX but not getaway
+	 */
+	private static boolean startsWithWord(final String name, final String prefix) {
+		return name.startsWith(prefix) && (name.length() == prefix.length() || !Character.isLowerCase(name.charAt(prefix.length())));
+	}
+
+	/**
+	 * the state shared by a lazy clone and the views it handed out, guarded by its monitor
+	 */
+	private static final class Session {
+		private final Cloner cloner;
+		private final IDeepCloner deepCloner;
+		private final Object root;
+		/**
+		 * the views handed out, keyed by the original they read
+		 */
+		private final Map<Object, Object> views = new IdentityHashMap<Object, Object>();
+		/**
+		 * originals to clones. Until materialized, only the results handed out as deep clones and what
+		 * they reference, which the clone of root then shares
+		 */
+		private final Map<Object, Object> clones = new IdentityHashMap<Object, Object>();
+		private boolean materialized;
+
+		Session(final Cloner cloner, final IDeepCloner deepCloner, final Object root) {
+			this.cloner = cloner;
+			this.deepCloner = deepCloner;
+			this.root = root;
+		}
+
+		void materialize() {
+			if (materialized) return;
+			materialized = true;
+			deepCloner.deepClone(root, clones);
+		}
+
+		/**
+		 * @return the clone of o. Objects that are not cloned yet (i.e. iterators or views created by a getter,
+		 * 		or any result before the session is materialized) are cloned now, sharing the clones made so far.
+		 */
+		Object cloneOf(final Object o) {
+			final Object clone = clones.get(o);
+			return clone != null ? clone : deepCloner.deepClone(o, clones);
+		}
+
+		/**
+		 * @return a lazy clone of o, returned by a read only method of an original, or its deep clone if it
+		 * 		can't be proxied
+		 */
+		Object view(final Object o) {
+			final Object existing = views.get(o);
+			if (existing != null) return existing;
+			final Class<?>[] interfaces = interfaces(o.getClass());
+			if (interfaces.length == 0) return o == root ? null : cloneOf(o);
+			final Object view;
+			try {
+				view = Proxy.newProxyInstance(o.getClass().getClassLoader(), interfaces, new LazyClone(this, o));
+			} catch (final IllegalArgumentException e) {
+				// i.e. non public interfaces of different packages
+				return o == root ? null : cloneOf(o);
+			}
+			views.put(o, view);
+			return view;
+		}
+
+		private static Class<?>[] interfaces(final Class<?> clz) {
+			final Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+			for (Class<?> c = clz; c != null; c = c.getSuperclass()) {
+				for (final Class<?> i : c.getInterfaces()) {
+					interfaces.add(i);
+				}
+			}
+			return interfaces.toArray(new Class<?>[interfaces.size()]);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.rits.cloning;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * estimates the bytes objects take on the heap from the layout of the running HotSpot jvm: the size of
+ * object headers and references depends on whether compressed oops and compressed class pointers are
+ * on, which is read from the HotSpotDiagnostic bean when the jvm provides it and guessed from the max
+ * heap size otherwise. Fields are assumed packed without gaps and objects aligned to 8 bytes.
+ *
+ * The internals of jdk collections are not accessible, their nodes and tables are estimated from the
+ * number of elements.
+ */
+final class ObjectLayout {
+	private static final boolean IS_64_BIT = !"32".equals(System.getProperty("sun.arch.data.model"));
+	private static final boolean COMPRESSED_OOPS = IS_64_BIT
+			&& vmOption("UseCompressedOops", Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024);
+	private static final boolean COMPRESSED_CLASS_POINTERS = IS_64_BIT && vmOption("UseCompressedClassPointers", COMPRESSED_OOPS);
+
+	static final int REFERENCE_SIZE = IS_64_BIT && !COMPRESSED_OOPS ? 8 : 4;
+	static final int HEADER_SIZE = !IS_64_BIT ? 8 : COMPRESSED_CLASS_POINTERS ? 12 : 16;
+	private static final int ARRAY_HEADER_SIZE = HEADER_SIZE + 4;
+
+	/**
+	 * HashMap.Node: hash, key, value, next
+	 */
+	private static final long HASH_NODE = align(HEADER_SIZE + 4 + 3 * REFERENCE_SIZE);
+	/**
+	 * LinkedHashMap.Entry adds before and after
+	 */
+	private static final long LINKED_HASH_NODE = align(HEADER_SIZE + 4 + 5 * REFERENCE_SIZE);
+	/**
+	 * TreeMap.Entry: key, value, left, right, parent, color
+	 */
+	private static final long TREE_NODE = align(HEADER_SIZE + 1 + 5 * REFERENCE_SIZE);
+	/**
+	 * LinkedList.Node: item, next, prev
+	 */
+	private static final long LIST_NODE = align(HEADER_SIZE + 3 * REFERENCE_SIZE);
+
+	private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>() {
+		@Override
+		protected Long computeValue(final Class<?> type) {
+			long size = HEADER_SIZE;
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (final Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) size += sizeOf(field.getType());
+				}
+			}
+			return align(size);
+		}
+	};
+
+	private ObjectLayout() {
+	}
+
+	private static boolean vmOption(final String name, final boolean defaultValue) {
+		try {
+			final Class<?> beanClass = Class.forName("com.sun.management.HotSpotDiagnosticMXBean");
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			final Object bean = ManagementFactory.getPlatformMXBean((Class) beanClass);
+			final Object option = beanClass.getMethod("getVMOption", String.class).invoke(bean, name);
+			return Boolean.parseBoolean((String) option.getClass().getMethod("getValue").invoke(option));
+		} catch (final Throwable t) {
+			// not a HotSpot jvm or the option doesn't exist i.e. on a 32 bit jvm
+			return defaultValue;
+		}
+	}
+
+	static long align(final long size) {
+		return (size + 7) & ~7L;
+	}
+
+	/**
+	 * @return the bytes a field or an array element of type t takes
+	 */
+	static int sizeOf(final Class<?> t) {
+		if (!t.isPrimitive()) return REFERENCE_SIZE;
+		if (t == long.class || t == double.class) return 8;
+		if (t == int.class || t == float.class) return 4;
+		if (t == short.class || t == char.class) return 2;
+		return 1;
+	}
+
+	/**
+	 * @return the size of an instance of clz, which must not be an array class
+	 */
+	static long shallowSize(final Class<?> clz) {
+		return SHALLOW_SIZES.get(clz);
+	}
+
+	static long arraySize(final Class<?> componentType, final int length) {
+		return align(ARRAY_HEADER_SIZE + (long) length * sizeOf(componentType));
+	}
+
+	/**
+	 * @return the size of s and its character array, assuming compact strings
+	 */
+	static long stringSize(final String s) {
+		final int length = s.length();
+		boolean latin1 = true;
+		for (int i = 0; i < length && latin1; i++) {
+			latin1 = s.charAt(i) <= 0xFF;
+		}
+		return shallowSize(String.class) + arraySize(latin1 ? byte.class : char.class, length);
+	}
+
+	/**
+	 * @return the size of the jdk collection or map c of size elements including its internal nodes and
+	 * 		tables, excluding the elements
+	 */
+	static long containerSize(final Object c, final int size) {
+		final long shallow = shallowSize(c.getClass());
+		if (c instanceof LinkedHashMap || c instanceof LinkedHashSet) {
+			return shallow + hashSetMap(c) + hashTable(size) + size * LINKED_HASH_NODE;
+		}
+		if (c instanceof HashMap || c instanceof HashSet || c instanceof Hashtable || c instanceof ConcurrentHashMap) {
+			return shallow + hashSetMap(c) + hashTable(size) + size * HASH_NODE;
+		}
+		if (c instanceof TreeMap || c instanceof TreeSet || c instanceof ConcurrentSkipListMap || c instanceof ConcurrentSkipListSet) {
+			return shallow + (c instanceof TreeSet ? shallowSize(TreeMap.class) : 0) + size * TREE_NODE;
+		}
+		if (c instanceof LinkedList) return shallow + size * LIST_NODE;
+		if (c instanceof Collection || c instanceof Map) {
+			// array backed: ArrayList, ArrayDeque, PriorityQueue, immutable collections...
+			return shallow + arraySize(Object.class, c instanceof Map ? size * 2 : size);
+		}
+		return shallow;
+	}
+
+	/**
+	 * @return the size of the HashMap behind a HashSet
+	 */
+	private static long hashSetMap(final Object c) {
+		if (c instanceof LinkedHashSet) return shallowSize(LinkedHashMap.class);
+		return c instanceof HashSet ? shallowSize(HashMap.class) : 0;
+	}
+
+	private static long hashTable(final int size) {
+		int capacity = 16;
+		while (capacity < 1 << 30 && capacity * 0.75 < size) {
+			capacity <<= 1;
+		}
+		return arraySize(Object.class, capacity);
+	}
+}
@@ -2,6 +2,7 @@ package com.rits.cloning;
 
 import org.objenesis.Objenesis;
 import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
 
 /**
  * @author kostantinos.kougios
@@ -10,11 +11,34 @@ import org.objenesis.ObjenesisStd;
  */
 public class ObjenesisInstantiationStrategy implements IInstantiationStrategy
 {
-	private final Objenesis	objenesis	= new ObjenesisStd();
+	// objenesis' own cache is keyed by class name, ours by the class itself
+	private final Objenesis	objenesis	= new ObjenesisStd(false);
 
+	/**
+	 * the instantiator of each class. A ClassValue, so that the shared instance doesn't keep classes
+	 * of discarded class loaders alive.
+	 */
+	private final ClassValue<ObjectInstantiator<?>>	instantiators	= new ClassValue<ObjectInstantiator<?>>()
+	{
+		@Override
+		protected ObjectInstantiator<?> computeValue(final Class<?> type)
+		{
+			return objenesis.getInstantiatorOf(type);
+		}
+	};
+
+	@SuppressWarnings("unchecked")
 	public <T> T newInstance(Class<T> c)
 	{
-		return objenesis.newInstance(c);
+		return (T) instantiators.get(c).newInstance();
+	}
+
+	/**
+	 * creates and caches the instantiator of c
+	 */
+	public void prepare(final Class<?> c)
+	{
+		instantiators.get(c);
 	}
 
 	private static ObjenesisInstantiationStrategy	instance	= new ObjenesisInstantiationStrategy();
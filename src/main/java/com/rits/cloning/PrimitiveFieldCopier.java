@@ -0,0 +1,43 @@
+package com.rits.cloning;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * copies the value of a primitive field from one instance to another. The getter is folded
+ * into the setter so that the value travels as a primitive and is never boxed.
+ */
+final class PrimitiveFieldCopier {
+	private static final MethodType COPIER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	final Field field;
+	/**
+	 * (Object dest, Object src)void
+	 */
+	private final MethodHandle copier;
+
+	PrimitiveFieldCopier(final Field field) throws IllegalAccessException {
+		final Class<?> type = field.getType();
+		if (!type.isPrimitive()) throw new IllegalArgumentException(field + " is not primitive");
+		this.field = field;
+		final MethodHandle getter = FieldAccessor.getter(field, MethodType.methodType(type, Object.class));
+		final MethodHandle setter = FieldAccessor.setter(field, MethodType.methodType(void.class, Object.class, type));
+		this.copier = MethodHandles.filterArguments(setter, 1, getter).asType(COPIER_TYPE);
+	}
+
+	void copy(final Object src, final Object dest) throws IllegalAccessException {
+		try {
+			copier.invokeExact(dest, src);
+		} catch (final RuntimeException e) {
+			throw e;
+		} catch (final Error e) {
+			throw e;
+		} catch (final IllegalAccessException e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new CloningException("error copying " + field, e);
+		}
+	}
+}
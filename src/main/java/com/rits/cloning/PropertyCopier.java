@@ -0,0 +1,25 @@
+package com.rits.cloning;
+
+/**
+ * copies the fields an instance of one class has in common with an instance of another, the compiled
+ * form of Cloner.copyPropertiesOfInheritedClass for one pair of classes. The common fields are resolved
+ * once, copying them is a straight sequence of method handle calls.
+ */
+final class PropertyCopier {
+	private final PrimitiveFieldCopier[] primitives;
+	private final FieldAccessor[] references;
+
+	PropertyCopier(final PrimitiveFieldCopier[] primitives, final FieldAccessor[] references) {
+		this.primitives = primitives;
+		this.references = references;
+	}
+
+	void copy(final Object src, final Object dest) throws IllegalAccessException {
+		for (final PrimitiveFieldCopier copier : primitives) {
+			copier.copy(src, dest);
+		}
+		for (final FieldAccessor accessor : references) {
+			accessor.set(dest, accessor.get(src));
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package com.rits.perspectives;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.rits.cloning.Cloner;
 
@@ -13,6 +18,11 @@ import com.rits.cloning.Cloner;
  */
 public class Perspectives
 {
+	/**
+	 * the number of items a task of the parallel viewCollectionAs converts without splitting further
+	 */
+	private static final int	PARALLEL_CHUNK	= 1024;
+
 	private final Cloner	cloner;
 
 	public Perspectives(final Cloner cloner)
@@ -70,4 +80,87 @@ public class Perspectives
 		}
 		return newCollection;
 	}
+
+	/**
+	 * like viewCollectionAs(newCollection, perspectiveCollectionItemClass, currentCollection) but the items are
+	 * converted by the threads of pool. They are added to newCollection by the calling thread once all are
+	 * converted, in the iteration order of currentCollection, so list perspectives keep the order of the items.
+	 * 
+	 * @param <T>								the type of the collection o
+	 * @param <I>								the type of the elements of the collection o
+	 * @param <E>								the type of the perspective collection
+	 * @param <NI>								the type of the perspective's elements
+	 * @param newCollection			the collection to which the adapted instances should be added
+	 * @param perspectiveCollectionItemClass	the class of the NI
+	 * @param currentCollection			the collection with the instances to be adapted
+	 * @param pool								the pool that converts the items
+	 * @return									E, the collection from a different perspective or null if currentCollection is null
+	 */
+	@SuppressWarnings("unchecked")
+	public <I, NI extends I, T extends Collection<I>, E extends Collection<NI>> E viewCollectionAs(final E newCollection, final Class<NI> perspectiveCollectionItemClass, final T currentCollection, final ForkJoinPool pool)
+	{
+		if (currentCollection == null) return null;
+		final Object[] items = currentCollection.toArray();
+		pool.invoke(new ViewAsTask(perspectiveCollectionItemClass, items, 0, items.length));
+		newCollection.addAll((Collection<NI>) Arrays.asList(items));
+		return newCollection;
+	}
+
+	/**
+	 * views each item of stream from the perspective of class c, see viewAs(). The items are converted lazily,
+	 * as the returned stream is consumed, so neither stream needs to be held in memory. The returned stream
+	 * is parallel if stream is.
+	 * 
+	 * @param <I>		the type of the items of stream
+	 * @param <NI>		the type of the perspective's items
+	 * @param c			the class of NI
+	 * @param stream	the items to be adapted
+	 * @return			the stream of the NI perspectives of the items, null if stream is null
+	 */
+	public <I, NI extends I> Stream<NI> viewStreamAs(final Class<NI> c, final Stream<I> stream)
+	{
+		if (stream == null) return null;
+		return stream.map(new Function<I, NI>()
+		{
+			public NI apply(final I item)
+			{
+				return viewAs(c, item);
+			}
+		});
+	}
+
+	/**
+	 * converts items[from..to) in place
+	 */
+	private class ViewAsTask extends RecursiveAction
+	{
+		private static final long	serialVersionUID	= 1L;
+		private final Class<?>		c;
+		private final Object[]		items;
+		private final int			from, to;
+
+		ViewAsTask(final Class<?> c, final Object[] items, final int from, final int to)
+		{
+			this.c = c;
+			this.items = items;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected void compute()
+		{
+			if (to - from > PARALLEL_CHUNK)
+			{
+				final int middle = (from + to) >>> 1;
+				invokeAll(new ViewAsTask(c, items, from, middle), new ViewAsTask(c, items, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++)
+			{
+				items[i] = viewAs((Class) c, items[i]);
+			}
+		}
+	}
 }
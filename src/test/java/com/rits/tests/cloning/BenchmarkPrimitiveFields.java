@@ -0,0 +1,51 @@
+package com.rits.tests.cloning;
+
+import java.lang.management.ManagementFactory;
+
+import com.rits.cloning.Cloner;
+
+/**
+ * measures time and bytes allocated per deep clone of an object with mostly primitive fields.
+ * Needs a HotSpot jvm for the per thread allocation counters.
+ */
+public class BenchmarkPrimitiveFields
+{
+
+	public static void main(final String[] args)
+	{
+		final Cloner cloner = new Cloner();
+		final Numbers numbers = new Numbers();
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+
+		// warm up
+		for (int i = 0; i < 1000000; i++)
+		{
+			cloner.deepClone(numbers);
+		}
+
+		final int j = 5000000;
+		final long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+		final long start = System.currentTimeMillis();
+		for (int i = 0; i < j; i++)
+		{
+			cloner.deepClone(numbers);
+		}
+		final long dt = System.currentTimeMillis() - start;
+		final long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+		System.out.println("dt=" + dt + " bytes/clone=" + bytes / j);
+	}
+
+	static class Numbers
+	{
+		int i1 = 1001, i2 = 1002, i3 = 1003, i4 = 1004, i5 = 1005, i6 = 1006;
+		long l1 = 2001, l2 = 2002, l3 = 2003, l4 = 2004, l5 = 2005, l6 = 2006;
+		double d1 = 1.1, d2 = 2.2, d3 = 3.3, d4 = 4.4, d5 = 5.5, d6 = 6.6;
+		float f1 = 1.5f, f2 = 2.5f;
+		short s1 = 300;
+		char c1 = 'x';
+		byte b1 = 7;
+		boolean z1 = true;
+		String name = "numbers";
+	}
+}
@@ -0,0 +1,159 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.CloningBudgetExceededException;
+import com.rits.cloning.CloningException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestCloneBudget {
+
+	static class Node {
+		Node next;
+		long[] payload;
+	}
+
+	static class Holder {
+		List<Node> nodes = new ArrayList<Node>();
+	}
+
+	private static Node chain(final int length) {
+		final Node head = new Node();
+		Node n = head;
+		for (int i = 1; i < length; i++) {
+			n.next = new Node();
+			n = n.next;
+		}
+		return head;
+	}
+
+	private static String path(final int nexts) {
+		final StringBuilder sb = new StringBuilder("Node");
+		for (int i = 0; i < nexts; i++) {
+			sb.append(".next");
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void objectsAreLimited() {
+		for (final boolean iterative : new boolean[]{false, true}) {
+			final Cloner cloner = new Cloner();
+			cloner.setIterativeCloning(iterative);
+			cloner.setMaxClonedObjects(5);
+			// the limit is per call
+			assertNotNull(cloner.deepClone(chain(5)));
+			assertNotNull(cloner.deepClone(chain(5)));
+			try {
+				cloner.deepClone(chain(10));
+				fail();
+			} catch (final CloningBudgetExceededException e) {
+				assertEquals(path(5), e.getPath());
+				assertEquals("more than 5 objects", e.getLimit());
+				assertTrue(e.getMessage().contains(path(5)));
+			}
+			cloner.setMaxClonedObjects(0);
+			assertNotNull(cloner.deepClone(chain(10)));
+		}
+	}
+
+	@Test
+	public void depthIsLimited() {
+		for (final boolean iterative : new boolean[]{false, true}) {
+			final Cloner cloner = new Cloner();
+			cloner.setIterativeCloning(iterative);
+			cloner.setMaxCloneDepth(10);
+			assertNotNull(cloner.deepClone(chain(10)));
+			try {
+				cloner.deepClone(chain(100));
+				fail();
+			} catch (final CloningBudgetExceededException e) {
+				assertEquals(path(10), e.getPath());
+			}
+		}
+	}
+
+	@Test
+	public void bytesAreLimited() {
+		final Cloner cloner = new Cloner();
+		final Node[] nodes = new Node[100];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node();
+			nodes[i].payload = new long[128];
+		}
+		cloner.setMaxClonedBytes(10 * 1024);
+		try {
+			cloner.deepClone(nodes);
+			fail();
+		} catch (final CloningException e) {
+			final String path = ((CloningBudgetExceededException) e).getPath();
+			assertTrue(path, path.matches("Node\\[\\]\\[\\d+\\]\\.payload"));
+		}
+	}
+
+	@Test
+	public void pathsGoThroughCollections() {
+		final Cloner cloner = new Cloner();
+		final Holder holder = new Holder();
+		holder.nodes.add(chain(3));
+		cloner.setMaxCloneDepth(4);
+		try {
+			cloner.deepClone(holder);
+			fail();
+		} catch (final CloningBudgetExceededException e) {
+			assertEquals("Holder.nodes[*].next.next", e.getPath());
+		}
+	}
+
+	@Test
+	public void deepCloneIntoIsLimited() {
+		final Cloner cloner = new Cloner();
+		final Node target = cloner.deepClone(chain(3));
+		cloner.setMaxClonedObjects(5);
+		assertSame(target, cloner.deepCloneInto(chain(3), target));
+		try {
+			cloner.deepCloneInto(chain(10), target);
+			fail();
+		} catch (final CloningBudgetExceededException e) {
+			assertEquals(path(5), e.getPath());
+		}
+	}
+
+	@Test
+	public void deepCloneIntoDepthIsLimited() {
+		final Cloner cloner = new Cloner();
+		final Node target = cloner.deepClone(chain(100));
+		cloner.setMaxCloneDepth(10);
+		assertSame(target, cloner.deepCloneInto(chain(10), target));
+		try {
+			cloner.deepCloneInto(chain(100), target);
+			fail();
+		} catch (final CloningBudgetExceededException e) {
+			assertEquals(path(10), e.getPath());
+		}
+	}
+
+	@Test
+	public void instancesNotClonedAreNotCounted() {
+		final Cloner cloner = new Cloner();
+		cloner.setMaxClonedObjects(5);
+		final Object[] dontClone = new Object[10];
+		for (int i = 0; i < dontClone.length; i++) {
+			dontClone[i] = new Object();
+		}
+		assertNotNull(cloner.deepCloneDontCloneInstances(chain(5), dontClone));
+		// all the roots of a call share the budget, the ones already cloned aren't counted again
+		final Node node = chain(2);
+		assertEquals(3, cloner.deepCloneAll(node, node, chain(3)).length);
+		try {
+			cloner.deepCloneAll(chain(3), chain(3));
+			fail();
+		} catch (final CloningBudgetExceededException e) {
+			assertEquals(path(2), e.getPath());
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.CloneMetrics;
+import com.rits.cloning.Cloner;
+import com.rits.cloning.CloningBudgetExceededException;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestCloneMetrics {
+
+	static class Holder {
+		List<Object> items = new ArrayList<Object>();
+		Object[] array = new Object[]{new Object()};
+		String name = "holder";
+	}
+
+	@Test
+	public void countsRootsObjectsAndCloners() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+		final Holder h = new Holder();
+		h.items.add(new Object());
+		h.items.add(new Object());
+
+		cloner.deepClone(h);
+		cloner.deepClone(h);
+
+		final CloneMetrics.ClassMetrics root = metrics.get(Holder.class);
+		assertEquals(2, root.getRoots());
+		// the holder, its list, 2 objects in the list, the array and the object in it
+		assertEquals(12, root.getObjects());
+		assertTrue(root.getNanos() > 0);
+		assertEquals(2, root.getReflectivelyCloned());
+		assertEquals(0, root.getFastCloned());
+
+		assertEquals(2, metrics.get(ArrayList.class).getFastCloned());
+		assertEquals(0, metrics.get(ArrayList.class).getRoots());
+		assertEquals(2, metrics.get(Object[].class).getReflectivelyCloned());
+		assertEquals(6, metrics.get(Object.class).getReflectivelyCloned());
+		assertNull(metrics.get(String.class));
+	}
+
+	@Test
+	public void deepCloneAllReportsEachRoot() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+		final Holder h = new Holder();
+		cloner.deepCloneAll(h, h, new Holder());
+
+		assertEquals(3, metrics.get(Holder.class).getRoots());
+		// the second root is the first one, already cloned
+		assertEquals(8, metrics.get(Holder.class).getObjects());
+	}
+
+	@Test
+	public void allocatedBytesAreMeasuredWhenAsked() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics(true);
+		cloner.setCloneMetricsListener(metrics);
+		for (int i = 0; i < 10; i++) {
+			cloner.deepClone(new Holder());
+		}
+		// not all jvms can measure them
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			assertTrue(metrics.get(Holder.class).getAllocatedBytes() > 0);
+		}
+		assertEquals(10, metrics.get(Holder.class).getRoots());
+	}
+
+	@Test
+	public void failedClonesAreNotReported() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+		cloner.setMaxClonedObjects(2);
+		try {
+			cloner.deepClone(new Holder());
+			fail();
+		} catch (final CloningBudgetExceededException e) {
+			// expected
+		}
+		assertEquals(0, metrics.get(Holder.class).getRoots());
+		assertEquals(1, metrics.get(Holder.class).getReflectivelyCloned());
+	}
+
+	@Test
+	public void disabledAndReset() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+		cloner.deepClone(new Holder());
+		assertEquals(1, metrics.snapshot().get(Holder.class).getRoots());
+		metrics.reset();
+		assertTrue(metrics.snapshot().isEmpty());
+		cloner.setCloneMetricsListener(null);
+		cloner.deepClone(new Holder());
+		assertTrue(metrics.snapshot().isEmpty());
+	}
+}
@@ -8,10 +8,14 @@ import com.rits.tests.cloning.domain.A;
 import com.rits.tests.cloning.domain.B;
 import com.rits.tests.cloning.domain.F;
 import com.rits.tests.cloning.domain.G;
+import com.rits.tests.perspectives.model.OrderedProduct;
+import com.rits.tests.perspectives.model.Product;
+import com.rits.tests.perspectives.model.RelatedProduct;
 import junit.framework.TestCase;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.math.BigDecimal;
 import java.util.*;
 
 import static java.lang.annotation.ElementType.TYPE;
@@ -140,6 +144,63 @@ public class TestCloner extends TestCase
 		assertSame(a, cloner.deepClone(a));
 	}
 
+	public void testRegistrationsAfterCloning()
+	{
+		final Cloner cloner = new Cloner();
+		final A a = new A()
+		{
+		};
+		assertNotSame(a, cloner.deepClone(a));
+		cloner.dontCloneInstanceOf(A.class);
+		assertSame(a, cloner.deepClone(a));
+
+		final ArrayList<Object> l = new ArrayList<Object>();
+		assertNotSame(l, cloner.deepClone(l));
+		cloner.nullInsteadOfClone(ArrayList.class);
+		assertNull(cloner.deepClone(l));
+	}
+
+	public void testFastCloneOverridden()
+	{
+		final List<Object> fastCloned = new ArrayList<Object>();
+		final Cloner cloner = new Cloner()
+		{
+			@Override
+			protected Object fastClone(final Object o, final Map<Object, Object> clones)
+			{
+				fastCloned.add(o);
+				if (o instanceof A)
+				{
+					final A a = new A();
+					a.setX(-1);
+					return a;
+				}
+				return super.fastClone(o, clones);
+			}
+		};
+		final A a = new A();
+		final ArrayList<Object> l = new ArrayList<Object>();
+		l.add(a);
+		final ArrayList<Object> clone = cloner.deepClone(l);
+		assertNotSame(l, clone);
+		assertEquals(-1, ((A) clone.get(0)).getX());
+		assertSame(l, fastCloned.get(0));
+		assertSame(a, fastCloned.get(1));
+	}
+
+	public void testRegisterConstants()
+	{
+		final Cloner cloner = new Cloner();
+		final A a = new A();
+		final B b = new B();
+		cloner.registerConstants(Arrays.asList(a, b));
+		final List<Object> l = new ArrayList<Object>(Arrays.asList(a, b, new A()));
+		final List<Object> clone = cloner.deepClone(l);
+		assertSame(a, clone.get(0));
+		assertSame(b, clone.get(1));
+		assertNotSame(l.get(2), clone.get(2));
+	}
+
 	public void testImmutableSubclassNotEnabled()
 	{
 		final BTestImmutableSubclass a = new BTestImmutableSubclass();
@@ -604,6 +665,62 @@ public class TestCloner extends TestCase
 		assertNotNull(deepClone.nontr);
 	}
 
+	public void testNullTransientChangedAfterCloning()
+	{
+		final Cloner c = new Cloner();
+		final TransientTest tt = new TransientTest();
+		assertNotNull(c.deepClone(tt).tr1);
+		c.setNullTransient(true);
+		final TransientTest deepClone = c.deepClone(tt);
+		assertNull(deepClone.tr1);
+		assertEquals(0, deepClone.i);
+		assertNotNull(deepClone.nontr);
+	}
+
+	static class Primitives
+	{
+		final int i;
+		long l = 2001;
+		double d = 3.5;
+		float f = 4.5f;
+		short s = 300;
+		char c = 'x';
+		byte b = 7;
+		boolean z = true;
+
+		Primitives(final int i)
+		{
+			this.i = i;
+		}
+	}
+
+	static class MorePrimitives extends Primitives
+	{
+		long more = 99;
+
+		MorePrimitives()
+		{
+			super(1001);
+		}
+	}
+
+	public void testPrimitiveFields()
+	{
+		final MorePrimitives p = new MorePrimitives();
+		final MorePrimitives clone = cloner.deepClone(p);
+		assertNotSame(p, clone);
+		assertEquals(1001, clone.i);
+		assertEquals(2001, clone.l);
+		assertEquals(3.5, clone.d);
+		assertEquals(4.5f, clone.f);
+		assertEquals(300, clone.s);
+		assertEquals('x', clone.c);
+		assertEquals(7, clone.b);
+		assertTrue(clone.z);
+		assertEquals(99, clone.more);
+		assertEquals(1001, cloner.shallowClone(p).i);
+	}
+
 	public void testCopyPropertiesArrayPrimitive()
 	{
 		final int[] src = new int[]{5, 6, 7};
@@ -638,6 +755,30 @@ public class TestCloner extends TestCase
 		assertEquals(10, b.getY());
 	}
 
+	public void testCopyPropertiesOfSiblingClasses()
+	{
+		final Product p = new Product(0, null, null);
+		// repeated so that the cached copier of each pair of classes is used
+		for (int i = 0; i < 3; i++)
+		{
+			final OrderedProduct ordered = new OrderedProduct(i, "sku" + i, "title", new BigDecimal("2.5"), 3);
+			final RelatedProduct related = new RelatedProduct(-1, "other", "other title");
+			related.setRelated(p);
+			cloner.copyPropertiesOfInheritedClass(ordered, related);
+			assertEquals(i, related.getId());
+			assertEquals("sku" + i, related.getSku());
+			assertEquals("title", related.getTitle());
+			assertSame(p, related.getRelated());
+
+			final OrderedProduct other = new OrderedProduct(-1, "other", "other title", new BigDecimal("1"), 1);
+			cloner.copyPropertiesOfInheritedClass((Product) related, other);
+			assertEquals(i, other.getId());
+			assertEquals("sku" + i, other.getSku());
+			assertEquals(new BigDecimal("1"), other.getPrice());
+			assertEquals(1, other.getQty());
+		}
+	}
+
 	public void testFreezable()
 	{
 		final F f = new F();
@@ -646,6 +787,105 @@ public class TestCloner extends TestCase
 		assertSame(f, cloner.deepClone(f));
 	}
 
+	public void testDeepCloneAllSharesObjectsBetweenRoots()
+	{
+		final Object shared = new Object();
+		final Object[] r1 = {shared, "r1"};
+		final Object[] r2 = {shared, "r2"};
+
+		final List<Object[]> clones = cloner.deepCloneAll(Arrays.asList(r1, r2, r1));
+		assertEquals(3, clones.size());
+		assertNotSame(r1, clones.get(0));
+		assertNotSame(shared, clones.get(0)[0]);
+		assertSame(clones.get(0)[0], clones.get(1)[0]);
+		assertSame(clones.get(0), clones.get(2));
+		assertEquals("r2", clones.get(1)[1]);
+
+		final Object[][] array = cloner.deepCloneAll(r1, null, r2);
+		assertEquals(3, array.length);
+		assertNull(array[1]);
+		assertSame(array[0][0], array[2][0]);
+		assertNotSame(shared, array[0][0]);
+	}
+
+	public void testImmutableElementsAreCopiedInBulk()
+	{
+		final Object mutable = new Object();
+		final Object[] array = {"a", 1, null, "b", mutable, "c", TestEnum.A};
+		final Object[] clone = cloner.deepClone(array);
+		assertNotSame(array, clone);
+		assertEquals(array.length, clone.length);
+		assertNotSame(mutable, clone[4]);
+		clone[4] = mutable;
+		assertTrue(Arrays.equals(array, clone));
+
+		final ArrayList<Object> strings = new ArrayList<Object>(Arrays.asList("a", null, "b"));
+		final ArrayList<Object> stringsClone = cloner.deepClone(strings);
+		assertNotSame(strings, stringsClone);
+		assertEquals(strings, stringsClone);
+		strings.add(mutable);
+		strings.add("d");
+		final ArrayList<Object> mixedClone = cloner.deepClone(strings);
+		assertEquals(5, mixedClone.size());
+		assertSame("b", mixedClone.get(2));
+		assertNotSame(mutable, mixedClone.get(3));
+		assertNotNull(mixedClone.get(3));
+		assertSame("d", mixedClone.get(4));
+
+		final HashMap<String, Object> m = new HashMap<String, Object>();
+		m.put("a", 1);
+		m.put("b", null);
+		final HashMap<String, Object> mClone = cloner.deepClone(m);
+		assertNotSame(m, mClone);
+		assertEquals(m, mClone);
+		m.put("c", mutable);
+		assertNotSame(mutable, cloner.deepClone(m).get("c"));
+
+		final HashSet<Object> set = new HashSet<Object>(Arrays.asList("a", "b"));
+		final HashSet<Object> setClone = cloner.deepClone(set);
+		assertNotSame(set, setClone);
+		assertEquals(set, setClone);
+	}
+
+	public void testHashMapsKeepAccessOrderAndCloneValues()
+	{
+		final LinkedHashMap<Object, Object> m = new LinkedHashMap<Object, Object>(4, 0.5f, true);
+		final Object mutable = new Object();
+		for (int i = 0; i < 100; i++)
+		{
+			m.put("k" + i, i % 2 == 0 ? mutable : i);
+		}
+		m.get("k0");
+		final LinkedHashMap<Object, Object> clone = cloner.deepClone(m);
+		assertEquals(new ArrayList<Object>(m.keySet()), new ArrayList<Object>(clone.keySet()));
+		assertNotSame(mutable, clone.get("k2"));
+		assertSame(clone.get("k2"), clone.get("k4"));
+		assertEquals(1, clone.get("k1"));
+		// still access ordered
+		clone.get("k1");
+		assertEquals("k1", new ArrayList<Object>(clone.keySet()).get(99));
+
+		final Object mutableKey = new Object();
+		m.put(mutableKey, "v");
+		final LinkedHashMap<Object, Object> mutableKeysClone = cloner.deepClone(m);
+		assertEquals(101, mutableKeysClone.size());
+		mutableKeysClone.get("k3");
+		assertEquals("k3", new ArrayList<Object>(mutableKeysClone.keySet()).get(100));
+
+		final HashMap<Object, Object> hm = new HashMap<Object, Object>(m);
+		final HashMap<Object, Object> hmClone = cloner.deepClone(hm);
+		assertEquals(101, hmClone.size());
+		assertEquals(3, hmClone.get("k3"));
+		assertNotSame(mutable, hmClone.get("k0"));
+		assertFalse(hmClone.containsKey(mutableKey));
+
+		final HashSet<Object> set = new HashSet<Object>(Arrays.asList("a", mutable));
+		final HashSet<Object> setClone = cloner.deepClone(set);
+		assertEquals(2, setClone.size());
+		assertTrue(setClone.contains("a"));
+		assertFalse(setClone.contains(mutable));
+	}
+
 	public void testDeepCloneDontCloneInstances()
 	{
 		final A a = new A();
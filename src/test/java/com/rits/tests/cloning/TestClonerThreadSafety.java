@@ -77,6 +77,37 @@ public class TestClonerThreadSafety extends TestCase
 		}
 	}
 
+	static class Marker
+	{
+	}
+
+	/**
+	 * re-registered over and over, so the constants of the shared cloner don't grow with every run
+	 */
+	private static final Object[]	CONSTANTS	= { new Object(), new Object(), new Object(), new Object() };
+
+	static class Holder
+	{
+		final Marker marker = new Marker();
+		final List<Object> list = new ArrayList<Object>();
+	}
+
+	/**
+	 * re-configures the shared cloner while the other threads are cloning
+	 */
+	public void testCloneWhileConfiguring()
+	{
+		for (int i = 0; i < 1000; i++)
+		{
+			cloner.registerConstant(CONSTANTS[i % CONSTANTS.length]);
+			cloner.dontClone(Marker.class);
+			final Holder h = new Holder();
+			final Holder clone = cloner.deepClone(h);
+			assertSame(h.marker, clone.marker);
+			assertNotSame(h.list, clone.list);
+		}
+	}
+
 	public static Test suite()
 	{
 		final TestSuite testSuite = new TestSuite();
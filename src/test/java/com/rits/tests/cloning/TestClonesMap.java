@@ -0,0 +1,95 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.IDeepCloner;
+import com.rits.cloning.IFastCloner;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * the clones map is pooled and reused between deepClone calls, these make sure it behaves
+ * like an identity map for fast cloners and doesn't leak entries between calls.
+ */
+public class TestClonesMap {
+
+	static class Node {
+		Node next;
+		int value;
+	}
+
+	static class Probe {
+	}
+
+	@Test
+	public void mapSeenByFastClonersIsAnIdentityMap() {
+		final Cloner cloner = new Cloner();
+		cloner.registerFastCloner(Probe.class, new IFastCloner() {
+			public Object clone(final Object t, final IDeepCloner c, final Map<Object, Object> clones) {
+				final List<Object> keys = new ArrayList<Object>();
+				for (int i = 0; i < 10000; i++) {
+					final Object key = new String("k");
+					keys.add(key);
+					assertNull(clones.put(key, i));
+				}
+				assertEquals(10000, clones.size());
+				for (int i = 0; i < keys.size(); i++) {
+					assertEquals(i, clones.get(keys.get(i)));
+				}
+				for (int i = 0; i < keys.size(); i += 2) {
+					assertEquals(i, clones.remove(keys.get(i)));
+				}
+				for (int i = 0; i < keys.size(); i++) {
+					assertEquals(i % 2 == 0 ? null : i, clones.get(keys.get(i)));
+				}
+				assertFalse(clones.containsKey(new String("k")));
+				assertNull(clones.put(null, "null"));
+				assertEquals("null", clones.get(null));
+				return new Probe();
+			}
+		});
+		final HashMap<String, Probe> m = new HashMap<String, Probe>();
+		m.put("p", new Probe());
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(cloner.deepClone(m).get("p"));
+		}
+	}
+
+	@Test
+	public void previousClonesAreNotReused() {
+		final Cloner cloner = new Cloner();
+		final Node n = new Node();
+		final Node c1 = cloner.deepClone(n);
+		final Node c2 = cloner.deepClone(n);
+		assertNotSame(c1, c2);
+		assertNotSame(n, c2);
+	}
+
+	@Test
+	public void longChainsGrowTheMap() {
+		final Cloner cloner = new Cloner();
+		Node head = null;
+		for (int i = 0; i < 500; i++) {
+			final Node n = new Node();
+			n.value = i;
+			n.next = head;
+			head = n;
+		}
+		for (int k = 0; k < 3; k++) {
+			final Node clone = cloner.deepClone(head);
+			Node o = head, c = clone;
+			while (o != null) {
+				assertNotSame(o, c);
+				assertEquals(o.value, c.value);
+				o = o.next;
+				c = c.next;
+			}
+			assertNull(c);
+		}
+	}
+}
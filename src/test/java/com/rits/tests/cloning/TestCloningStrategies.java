@@ -3,12 +3,16 @@ package com.rits.tests.cloning;
 import com.rits.cloning.Cloner;
 import com.rits.cloning.CloningStrategyFactory;
 import com.rits.cloning.ICloningStrategy;
+import com.rits.cloning.IFieldCloningStrategy;
 import org.junit.Test;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -59,4 +63,63 @@ public class TestCloningStrategies {
 		NotAnnotatedExample ae = new NotAnnotatedExample();
 		assertNotSame(ae.o, cloner.deepClone(ae).o);
 	}
+
+	/**
+	 * counts the calls for each field
+	 */
+	static class CountingFieldStrategy implements IFieldCloningStrategy {
+		final List<String> asked = new ArrayList<String>();
+
+		public Strategy strategyFor(Field field) {
+			asked.add(field.getName());
+			return field.getType() == Data.class ? Strategy.NULL_INSTEAD_OF_CLONE : Strategy.IGNORE;
+		}
+	}
+
+	@Test
+	public void fieldStrategiesAreAskedOncePerField() {
+		Cloner cloner = Cloner.standard();
+		CountingFieldStrategy strategy = new CountingFieldStrategy();
+		cloner.registerCloningStrategy(strategy);
+		for (int i = 0; i < 10; i++) {
+			assertNull(cloner.deepClone(new NotAnnotatedExample()).o);
+		}
+		// o and the synthetic reference to the outer instance
+		assertTrue(strategy.asked.size() <= 2);
+		assertTrue(strategy.asked.contains("o"));
+	}
+
+	@Test
+	public void instanceStrategiesRegisteredBeforeAFieldStrategyComeFirst() {
+		Cloner cloner = Cloner.standard();
+		final NotAnnotatedExample shared = new NotAnnotatedExample();
+		cloner.registerCloningStrategy(new ICloningStrategy() {
+			public Strategy strategyFor(Object toBeCloned, Field field) {
+				return toBeCloned == shared ? Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE : Strategy.IGNORE;
+			}
+		});
+		cloner.registerCloningStrategy(new CountingFieldStrategy());
+		assertSame(shared.o, cloner.deepClone(shared).o);
+		assertNull(cloner.deepClone(new NotAnnotatedExample()).o);
+	}
+
+	@Test
+	public void fieldStrategiesRegisteredBeforeAnInstanceStrategyComeFirst() {
+		Cloner cloner = Cloner.standard();
+		cloner.registerCloningStrategy(new CountingFieldStrategy());
+		cloner.registerCloningStrategy(new ICloningStrategy() {
+			public Strategy strategyFor(Object toBeCloned, Field field) {
+				return Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE;
+			}
+		});
+		assertNull(cloner.deepClone(new NotAnnotatedExample()).o);
+	}
+
+	@Test
+	public void strategiesRegisteredAfterCloningApply() {
+		Cloner cloner = Cloner.standard();
+		assertNotNull(cloner.deepClone(new AnnotatedExample()).o);
+		cloner.registerCloningStrategy(CloningStrategyFactory.annotatedField(Ann.class, ICloningStrategy.Strategy.NULL_INSTEAD_OF_CLONE));
+		assertNull(cloner.deepClone(new AnnotatedExample()).o);
+	}
 }
@@ -0,0 +1,244 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.FastClonerArrayList;
+import com.rits.cloning.IDeepCloner;
+import com.rits.cloning.IDumpCloned;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestDeepCloneInto {
+
+	static class Quote {
+		double bid, ask;
+		String venue;
+
+		Quote(final double bid, final double ask, final String venue) {
+			this.bid = bid;
+			this.ask = ask;
+			this.venue = venue;
+		}
+	}
+
+	static class Snapshot {
+		long tick;
+		Quote best;
+		Quote[] levels;
+		double[] curve;
+		List<Quote> history = new ArrayList<Quote>();
+		Map<String, Quote> byVenue = new HashMap<String, Quote>();
+		Snapshot self;
+	}
+
+	static class Node {
+		Node next;
+		int value;
+	}
+
+	static class Cached {
+		String value;
+		transient String cache;
+		transient int hits;
+	}
+
+	private static Snapshot snapshot(final long tick, final int levels) {
+		final Snapshot s = new Snapshot();
+		s.tick = tick;
+		s.best = new Quote(tick, tick + 1, "A");
+		s.levels = new Quote[levels];
+		for (int i = 0; i < levels; i++) {
+			s.levels[i] = new Quote(tick - i, tick + i, "L" + i);
+		}
+		s.curve = new double[]{tick, tick * 2};
+		s.history.addAll(Arrays.asList(s.levels));
+		s.byVenue.put("A", s.best);
+		s.byVenue.put("B", new Quote(tick, tick + 2, "B"));
+		s.self = s;
+		return s;
+	}
+
+	private static void assertCloneOf(final Snapshot s, final Snapshot c) {
+		assertNotSame(s, c);
+		assertEquals(s.tick, c.tick);
+		assertSame(c, c.self);
+		assertNotSame(s.best, c.best);
+		assertEquals(s.best.bid, c.best.bid, 0);
+		assertEquals(s.levels.length, c.levels.length);
+		for (int i = 0; i < s.levels.length; i++) {
+			assertEquals(s.levels[i].venue, c.levels[i].venue);
+			assertEquals(s.levels[i].ask, c.levels[i].ask, 0);
+			// shared objects stay shared
+			assertSame(c.levels[i], c.history.get(i));
+		}
+		assertArrayEquals(s.curve, c.curve, 0);
+		assertEquals(s.history.size(), c.history.size());
+		assertSame(c.best, c.byVenue.get("A"));
+		assertEquals(s.byVenue.get("B").ask, c.byVenue.get("B").ask, 0);
+		assertEquals(s.byVenue.keySet(), c.byVenue.keySet());
+	}
+
+	@Test
+	public void reusesTheTargetGraph() {
+		for (final boolean iterative : new boolean[]{false, true}) {
+			final Cloner cloner = new Cloner();
+			cloner.setIterativeCloning(iterative);
+			final Snapshot target = cloner.deepClone(snapshot(1, 3));
+			final Quote best = target.best;
+			final Quote[] levels = target.levels;
+			final Quote level = target.levels[0];
+			final double[] curve = target.curve;
+			final List<Quote> history = target.history;
+			final Map<String, Quote> byVenue = target.byVenue;
+			final Quote b = target.byVenue.get("B");
+
+			final Snapshot next = snapshot(2, 3);
+			assertSame(target, cloner.deepCloneInto(next, target));
+			assertCloneOf(next, target);
+			assertSame(best, target.best);
+			assertSame(levels, target.levels);
+			assertSame(level, target.levels[0]);
+			assertSame(curve, target.curve);
+			assertSame(history, target.history);
+			assertSame(byVenue, target.byVenue);
+			assertSame(b, target.byVenue.get("B"));
+		}
+	}
+
+	@Test
+	public void allocatesWhereTheShapesDiffer() {
+		final Cloner cloner = new Cloner();
+		final Snapshot target = cloner.deepClone(snapshot(1, 3));
+		final Quote[] levels = target.levels;
+		final List<Quote> history = target.history;
+		final Map<String, Quote> byVenue = target.byVenue;
+		final Snapshot next = snapshot(2, 5);
+		next.byVenue.put("C", new Quote(0, 0, "C"));
+
+		assertSame(target, cloner.deepCloneInto(next, target));
+		assertCloneOf(next, target);
+		assertNotSame(levels, target.levels);
+		assertSame(history, target.history);
+		assertNotSame(byVenue, target.byVenue);
+
+		final Snapshot smaller = snapshot(3, 2);
+		cloner.deepCloneInto(smaller, target);
+		assertCloneOf(smaller, target);
+	}
+
+	@Test
+	public void targetObjectsAreReusedOnce() {
+		for (final boolean iterative : new boolean[]{false, true}) {
+			final Cloner cloner = new Cloner();
+			cloner.setIterativeCloning(iterative);
+			final Snapshot target = snapshot(1, 2);
+			final Snapshot next = snapshot(2, 2);
+			// the target shares a quote the source doesn't
+			target.best = target.levels[0];
+			target.levels[1] = target.levels[0];
+			cloner.deepCloneInto(next, target);
+			assertNotSame(target.best, target.levels[1]);
+			assertEquals("L1", target.levels[1].venue);
+			assertEquals("A", target.best.venue);
+			assertNotSame(next.levels[0], target.levels[0]);
+		}
+	}
+
+	@Test
+	public void nullOrOtherClassesAreCloned() {
+		final Cloner cloner = new Cloner();
+		final Snapshot s = snapshot(1, 2);
+		assertCloneOf(s, cloner.deepCloneInto(s, null));
+		assertNull(cloner.deepCloneInto(null, s));
+		final List<Object> list = new ArrayList<Object>(Arrays.<Object>asList(s));
+		final List<Object> clone = cloner.deepCloneInto(list, Arrays.<Object>asList(new Snapshot()));
+		assertTrue(clone instanceof ArrayList);
+		assertCloneOf(s, (Snapshot) clone.get(0));
+	}
+
+	@Test
+	public void transientFieldsOfTheTargetAreNulled() {
+		final Cloner cloner = new Cloner();
+		cloner.setNullTransient(true);
+		final Cached o = new Cached();
+		o.value = "new";
+		o.cache = "new cache";
+		o.hits = 2;
+		final Cached target = new Cached();
+		target.value = "old";
+		target.cache = "stale";
+		target.hits = 5;
+		assertSame(target, cloner.deepCloneInto(o, target));
+		assertEquals("new", target.value);
+		assertNull(target.cache);
+		assertEquals(0, target.hits);
+	}
+
+	@Test
+	public void deepChainsWithIterativeCloning() {
+		final Cloner cloner = new Cloner();
+		cloner.setIterativeCloning(true);
+		final Node head = new Node();
+		Node n = head;
+		for (int i = 1; i < 100000; i++) {
+			n.next = new Node();
+			n.next.value = i;
+			n = n.next;
+		}
+		final Node target = cloner.deepClone(head);
+		final Node second = target.next;
+		n.value = -1;
+		assertSame(target, cloner.deepCloneInto(head, target));
+		assertSame(second, target.next);
+		n = target;
+		while (n.next != null) {
+			n = n.next;
+		}
+		assertEquals(-1, n.value);
+	}
+
+	@Test
+	public void registeredFastClonersAreNotBypassed() {
+		final Cloner cloner = new Cloner();
+		cloner.unregisterFastCloner(ArrayList.class);
+		cloner.registerFastCloner(ArrayList.class, new FastClonerArrayList() {
+			@Override
+			public Object clone(final Object t, final IDeepCloner deepCloner, final Map<Object, Object> clones) {
+				final List<Object> l = new ArrayList<Object>();
+				l.add("fast");
+				return l;
+			}
+		});
+		final Snapshot s = snapshot(1, 2);
+		final Snapshot target = cloner.deepClone(s);
+		final List<Quote> history = target.history;
+		cloner.deepCloneInto(s, target);
+		assertNotSame(history, target.history);
+		assertEquals(Arrays.<Object>asList("fast"), target.history);
+	}
+
+	@Test
+	public void reassignedFieldsAreDumped() {
+		final Cloner cloner = new Cloner();
+		final List<String> dumped = new ArrayList<String>();
+		final Snapshot target = cloner.deepClone(snapshot(1, 2));
+		cloner.setDumpCloned(new IDumpCloned() {
+			public void startCloning(final Class<?> clz) {
+			}
+
+			public void cloning(final Field field, final Class<?> clz) {
+				dumped.add(clz.getSimpleName() + "." + field.getName());
+			}
+		});
+		cloner.deepCloneInto(snapshot(2, 2), target);
+		assertTrue(dumped.toString(), dumped.contains("Snapshot.best"));
+		assertTrue(dumped.toString(), dumped.contains("Snapshot.levels"));
+	}
+}
@@ -0,0 +1,168 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestInferImmutables {
+
+	static final class Money {
+		final BigDecimal amount;
+		final String currency;
+
+		Money(final BigDecimal amount, final String currency) {
+			this.amount = amount;
+			this.currency = currency;
+		}
+	}
+
+	static class Line {
+		final Money price;
+		final int quantity;
+		final TestEnum e = TestEnum.A;
+
+		Line(final Money price, final int quantity) {
+			this.price = price;
+			this.quantity = quantity;
+		}
+	}
+
+	static class MutableLine {
+		final Money price;
+		int quantity;
+
+		MutableLine(final Money price) {
+			this.price = price;
+		}
+	}
+
+	static class WithList {
+		final List<String> list = new ArrayList<String>();
+	}
+
+	static class NotFinalField {
+		final Money price;
+
+		NotFinalField(final Money price) {
+			this.price = price;
+		}
+	}
+
+	static class Open {
+		final int x = 1;
+	}
+
+	static class HasOpen {
+		// Open isn't final, a subclass could be mutable
+		final Open open = new Open();
+	}
+
+	static final class Chain {
+		final Chain next;
+		final String value;
+
+		Chain(final Chain next, final String value) {
+			this.next = next;
+			this.value = value;
+		}
+	}
+
+	static final class Cyclic {
+		final Other other;
+
+		Cyclic(final Other other) {
+			this.other = other;
+		}
+	}
+
+	static final class Other {
+		final Cyclic cyclic;
+		final MutableLine mutable;
+
+		Other(final Cyclic cyclic, final MutableLine mutable) {
+			this.cyclic = cyclic;
+			this.mutable = mutable;
+		}
+	}
+
+	static final class Holder {
+		final Cyclic cyclic;
+		final Other other;
+
+		Holder(final Cyclic cyclic, final Other other) {
+			this.cyclic = cyclic;
+			this.other = other;
+		}
+	}
+
+	private Cloner cloner() {
+		final Cloner cloner = new Cloner();
+		cloner.setInferImmutables(true);
+		return cloner;
+	}
+
+	@Test
+	public void valueObjectsAreShared() {
+		final Cloner cloner = cloner();
+		final Money m = new Money(BigDecimal.TEN, "eur");
+		assertSame(m, cloner.deepClone(m));
+		final Line l = new Line(m, 2);
+		assertSame(l, cloner.deepClone(l));
+		final Chain c = new Chain(new Chain(null, "a"), "b");
+		assertSame(c, cloner.deepClone(c));
+		final Money[] a = new Money[]{m};
+		final Money[] ca = cloner.deepClone(a);
+		assertNotSame(a, ca);
+		assertSame(m, ca[0]);
+	}
+
+	@Test
+	public void mutableClassesAreCloned() {
+		final Cloner cloner = cloner();
+		final Money m = new Money(BigDecimal.TEN, "eur");
+		final MutableLine l = new MutableLine(m);
+		final MutableLine cl = cloner.deepClone(l);
+		assertNotSame(l, cl);
+		assertSame(m, cl.price);
+		assertNotSame(new WithList(), cloner.deepClone(new WithList()));
+		final HasOpen h = new HasOpen();
+		assertNotSame(h, cloner.deepClone(h));
+		final Object o = new Object();
+		assertNotSame(o, cloner.deepClone(o));
+	}
+
+	@Test
+	public void cyclesDependingOnAMutableClass() {
+		final Cloner cloner = cloner();
+		final Other other = new Other(null, new MutableLine(null));
+		final Cyclic cyclic = new Cyclic(other);
+		final Holder h = new Holder(cyclic, other);
+		final Holder clone = cloner.deepClone(h);
+		assertNotSame(h, clone);
+		assertNotSame(cyclic, clone.cyclic);
+		assertNotSame(other, clone.other);
+		assertNotSame(cyclic, cloner.deepClone(cyclic));
+	}
+
+	@Test
+	public void registrationsAreTakenIntoAccount() {
+		final Cloner cloner = cloner();
+		final NotFinalField n = new NotFinalField(new Money(BigDecimal.ONE, "gbp"));
+		assertSame(n, cloner.deepClone(n));
+		cloner.nullInsteadOfClone(Money.class);
+		final NotFinalField clone = cloner.deepClone(n);
+		assertNotSame(n, clone);
+		assertNull(clone.price);
+	}
+
+	@Test
+	public void offByDefault() {
+		final Money m = new Money(BigDecimal.TEN, "eur");
+		assertNotSame(m, new Cloner().deepClone(m));
+	}
+}
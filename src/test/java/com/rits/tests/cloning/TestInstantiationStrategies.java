@@ -0,0 +1,111 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.ConstructorInstantiationStrategy;
+import com.rits.cloning.ObjenesisInstantiationStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestInstantiationStrategies {
+
+	static final AtomicInteger constructed = new AtomicInteger();
+
+	static class WithConstructor {
+		int value;
+		List<String> items = new ArrayList<String>();
+
+		WithConstructor() {
+			constructed.incrementAndGet();
+		}
+	}
+
+	static class WithTransient {
+		String name;
+		transient List<String> cache = new ArrayList<String>();
+		transient int hits = 1;
+	}
+
+	static class WithoutConstructor {
+		final String name;
+
+		WithoutConstructor(final String name) {
+			this.name = name;
+			constructed.incrementAndGet();
+		}
+	}
+
+	static class PrivateConstructor {
+		int value;
+
+		private PrivateConstructor() {
+			constructed.incrementAndGet();
+		}
+
+		static PrivateConstructor create() {
+			return new PrivateConstructor();
+		}
+	}
+
+	@Test
+	public void objenesisDoesntCallConstructors() {
+		final ObjenesisInstantiationStrategy strategy = ObjenesisInstantiationStrategy.getInstance();
+		final int before = constructed.get();
+		final WithConstructor o = strategy.newInstance(WithConstructor.class);
+		assertNull(o.items);
+		assertSame(WithConstructor.class, strategy.newInstance(WithConstructor.class).getClass());
+		assertEquals(before, constructed.get());
+	}
+
+	@Test
+	public void constructorsAreCalledWhenAccessible() {
+		final ConstructorInstantiationStrategy strategy = new ConstructorInstantiationStrategy();
+		int before = constructed.get();
+		final WithConstructor o = strategy.newInstance(WithConstructor.class);
+		assertNotNull(o.items);
+		assertEquals(before + 1, constructed.get());
+
+		before = constructed.get();
+		assertNull(strategy.newInstance(WithoutConstructor.class).name);
+		assertEquals(0, strategy.newInstance(PrivateConstructor.class).value);
+		assertEquals(before, constructed.get());
+	}
+
+	@Test
+	public void clonesWithConstructors() {
+		final Cloner cloner = new Cloner(new ConstructorInstantiationStrategy());
+		final WithConstructor o = new WithConstructor();
+		o.value = 5;
+		o.items.add("a");
+		final WithConstructor clone = cloner.deepClone(o);
+		assertEquals(5, clone.value);
+		assertEquals(o.items, clone.items);
+		assertNotSame(o.items, clone.items);
+
+		final WithoutConstructor w = cloner.deepClone(new WithoutConstructor("w"));
+		assertEquals("w", w.name);
+		final PrivateConstructor p = PrivateConstructor.create();
+		p.value = 3;
+		assertEquals(3, cloner.deepClone(p).value);
+	}
+
+	@Test
+	public void transientFieldsSetByConstructorsAreNulled() {
+		final Cloner cloner = new Cloner(new ConstructorInstantiationStrategy());
+		cloner.setNullTransient(true);
+		final WithTransient o = new WithTransient();
+		o.name = "o";
+		o.cache.add("a");
+		final WithTransient clone = cloner.deepClone(o);
+		assertEquals("o", clone.name);
+		assertNull(clone.cache);
+		assertEquals(0, clone.hits);
+
+		cloner.setIterativeCloning(true);
+		assertNull(cloner.deepClone(o).cache);
+	}
+}
@@ -0,0 +1,181 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.ICloningStrategy;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestIterativeCloning {
+
+	static class Node {
+		Node next;
+		int value;
+		Object[] payload;
+	}
+
+	static class Tree {
+		Tree left, right, parent;
+		int depth;
+	}
+
+	static class Key {
+		Key self;
+		String name;
+
+		Key(final String name) {
+			this.name = name;
+			this.self = this;
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Key && ((Key) o).name.equals(name);
+		}
+	}
+
+	static class Keys {
+		Set<Key> keys = new HashSet<Key>();
+		Key first;
+	}
+
+	static class Failing {
+		Object o = new Object();
+
+		public Object getO() {
+			throw new IllegalStateException();
+		}
+	}
+
+	static class Holder {
+		Failing failing = new Failing();
+		Object after = new Object();
+	}
+
+	private Cloner cloner() {
+		final Cloner cloner = new Cloner();
+		cloner.setIterativeCloning(true);
+		return cloner;
+	}
+
+	@Test
+	public void veryLongChain() {
+		Node head = null;
+		for (int i = 0; i < 200000; i++) {
+			final Node n = new Node();
+			n.value = i;
+			n.next = head;
+			n.payload = new Object[]{"v", n};
+			head = n;
+		}
+		final Node clone = cloner().deepClone(head);
+		Node o = head, c = clone;
+		while (o != null) {
+			assertNotSame(o, c);
+			assertEquals(o.value, c.value);
+			assertSame(c, c.payload[1]);
+			assertSame(o.payload[0], c.payload[0]);
+			o = o.next;
+			c = c.next;
+		}
+		assertNull(c);
+	}
+
+	@Test
+	public void treeWithParents() {
+		final Tree root = tree(12, null);
+		final Tree clone = cloner().deepClone(root);
+		assertTree(root, clone, null);
+	}
+
+	private Tree tree(final int depth, final Tree parent) {
+		final Tree t = new Tree();
+		t.depth = depth;
+		t.parent = parent;
+		if (depth > 0) {
+			t.left = tree(depth - 1, t);
+			t.right = tree(depth - 1, t);
+		}
+		return t;
+	}
+
+	private void assertTree(final Tree o, final Tree c, final Tree parentClone) {
+		assertNotSame(o, c);
+		assertEquals(o.depth, c.depth);
+		assertSame(parentClone, c.parent);
+		if (o.left != null) {
+			assertTree(o.left, c.left, c);
+			assertTree(o.right, c.right, c);
+		}
+	}
+
+	@Test
+	public void fastClonersSeeFullyClonedElements() {
+		final Keys keys = new Keys();
+		keys.first = new Key("a");
+		keys.keys.add(keys.first);
+		keys.keys.add(new Key("b"));
+		final Keys clone = cloner().deepClone(keys);
+		assertTrue(clone.keys.contains(new Key("a")));
+		assertTrue(clone.keys.contains(new Key("b")));
+		assertTrue(clone.keys.contains(clone.first));
+		assertNotSame(keys.first, clone.first);
+		assertSame(clone.first, clone.first.self);
+	}
+
+	@Test
+	public void cloningStrategies() {
+		final Cloner cloner = cloner();
+		cloner.registerCloningStrategy(new ICloningStrategy() {
+			public Strategy strategyFor(final Object toBeCloned, final Field field) {
+				if (field.getName().equals("payload")) return Strategy.NULL_INSTEAD_OF_CLONE;
+				if (field.getName().equals("next")) return Strategy.SAME_INSTANCE_INSTEAD_OF_CLONE;
+				return Strategy.IGNORE;
+			}
+		});
+		final Node n = new Node();
+		n.next = new Node();
+		n.payload = new Object[1];
+		final Node clone = cloner.deepClone(n);
+		assertNotSame(n, clone);
+		assertSame(n.next, clone.next);
+		assertNull(clone.payload);
+	}
+
+	@Test
+	public void runtimeExceptionsNullTheFailedObject() {
+		final Cloner cloner = cloner();
+		cloner.registerCloningStrategy(new ICloningStrategy() {
+			public Strategy strategyFor(final Object toBeCloned, final Field field) {
+				if (toBeCloned instanceof Failing) ((Failing) toBeCloned).getO();
+				return Strategy.IGNORE;
+			}
+		});
+		final Holder clone = cloner.deepClone(new Holder());
+		assertNull(clone.failing);
+		assertNotNull(clone.after);
+		assertNull(cloner.deepClone(new Failing()));
+	}
+
+	@Test
+	public void mapsSharedByFastClonersAndFields() {
+		final Node shared = new Node();
+		final Map<String, Object> m = new HashMap<String, Object>();
+		m.put("a", shared);
+		m.put("b", new Object[]{shared});
+		final Map<String, Object> clone = cloner().deepClone(m);
+		assertNotSame(shared, clone.get("a"));
+		assertSame(clone.get("a"), ((Object[]) clone.get("b"))[0]);
+	}
+}
@@ -0,0 +1,230 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.CloneMetrics;
+import com.rits.cloning.Cloner;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TestJdkFastCloners {
+
+	static class Item implements Comparable<Item> {
+		int value;
+
+		Item(final int value) {
+			this.value = value;
+		}
+
+		public int compareTo(final Item o) {
+			return value - o.value;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Item && ((Item) o).value == value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value;
+		}
+	}
+
+	private final Cloner cloner = new Cloner();
+	private final CloneMetrics metrics = new CloneMetrics();
+
+	@Before
+	public void setUp() {
+		cloner.setCloneMetricsListener(metrics);
+	}
+
+	private void assertFastCloned(final Object o) {
+		assertNotNull(o.getClass() + " not cloned", metrics.get(o.getClass()));
+		assertEquals(o.getClass() + " not fast cloned", 0, metrics.get(o.getClass()).getReflectivelyCloned());
+		assertTrue(metrics.get(o.getClass()).getFastCloned() > 0);
+	}
+
+	private <T extends Collection<Item>> T cloneItems(final T c) {
+		final T clone = cloner.deepClone(c);
+		assertNotSame(c, clone);
+		assertEquals(new ArrayList<Item>(c), new ArrayList<Item>(clone));
+		final Iterator<Item> it = clone.iterator();
+		for (final Item i : c) {
+			assertNotSame(i, it.next());
+		}
+		assertFastCloned(c);
+		return clone;
+	}
+
+	@Test
+	public void sortedAndOrderedCollections() {
+		final TreeSet<Item> treeSet = new TreeSet<Item>(Collections.reverseOrder());
+		treeSet.add(new Item(1));
+		treeSet.add(new Item(3));
+		treeSet.add(new Item(2));
+		final TreeSet<Item> treeSetClone = cloneItems(treeSet);
+		treeSetClone.add(new Item(4));
+		assertEquals(4, treeSetClone.first().value);
+
+		final LinkedHashSet<Item> linkedHashSet = new LinkedHashSet<Item>(Arrays.asList(new Item(3), new Item(1), new Item(2)));
+		cloneItems(linkedHashSet);
+
+		final ArrayDeque<Item> deque = new ArrayDeque<Item>(Arrays.asList(new Item(3), new Item(1)));
+		cloneItems(deque);
+
+		final CopyOnWriteArrayList<Item> cow = new CopyOnWriteArrayList<Item>(Arrays.asList(new Item(3), new Item(1)));
+		cloneItems(cow);
+	}
+
+	@Test
+	public void priorityQueueKeepsItsHeap() {
+		final PriorityQueue<Item> q = new PriorityQueue<Item>();
+		for (int i = 100; i > 0; i--) {
+			q.add(new Item(i * 7 % 101));
+		}
+		final PriorityQueue<Item> clone = cloneItems(q);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(q.poll(), clone.poll());
+		}
+	}
+
+	@Test
+	public void enumCollections() {
+		final EnumMap<TestEnum, Item> m = new EnumMap<TestEnum, Item>(TestEnum.class);
+		m.put(TestEnum.A, new Item(1));
+		final EnumMap<TestEnum, Item> mClone = cloner.deepClone(m);
+		assertEquals(m, mClone);
+		assertNotSame(m.get(TestEnum.A), mClone.get(TestEnum.A));
+		assertFastCloned(m);
+
+		final EnumSet<TestEnum> s = EnumSet.of(TestEnum.A);
+		final EnumSet<TestEnum> sClone = cloner.deepClone(s);
+		assertNotSame(s, sClone);
+		assertEquals(s, sClone);
+		assertFastCloned(s);
+	}
+
+	@Test
+	public void skipListMap() {
+		final ConcurrentSkipListMap<Item, Item> m = new ConcurrentSkipListMap<Item, Item>(Collections.reverseOrder());
+		m.put(new Item(1), new Item(10));
+		m.put(new Item(2), new Item(20));
+		final ConcurrentSkipListMap<Item, Item> clone = cloner.deepClone(m);
+		assertEquals(m, clone);
+		assertEquals(2, clone.firstKey().value);
+		assertNotSame(m.firstKey(), clone.firstKey());
+		assertFastCloned(m);
+	}
+
+	@Test
+	public void unmodifiableViewsWrapTheClonedCollection() {
+		final List<Item> list = new ArrayList<Item>(Arrays.asList(new Item(1)));
+		final List<Object> holder = new ArrayList<Object>();
+		holder.add(list);
+		holder.add(Collections.unmodifiableList(list));
+		holder.add(Collections.unmodifiableMap(new HashMap<String, Item>(Collections.singletonMap("a", new Item(2)))));
+		holder.add(Collections.unmodifiableSortedSet(new TreeSet<Item>(list)));
+		final List<Object> clone = cloner.deepClone(holder);
+
+		final List<Item> listClone = (List<Item>) clone.get(0);
+		final List<Item> viewClone = (List<Item>) clone.get(1);
+		listClone.add(new Item(3));
+		assertEquals(2, viewClone.size());
+		assertSame(listClone.get(0), viewClone.get(0));
+		assertFastCloned(holder.get(1));
+		assertNotSame(((Map<?, ?>) holder.get(2)).get("a"), ((Map<?, ?>) clone.get(2)).get("a"));
+		assertEquals(((Map<?, ?>) holder.get(2)), clone.get(2));
+		assertFastCloned(holder.get(2));
+		assertEquals(holder.get(3), clone.get(3));
+		assertFastCloned(holder.get(3));
+
+		// views of constants are shared
+		final List<String> empty = Collections.unmodifiableList(Collections.<String>emptyList());
+		assertSame(empty, cloner.deepClone(empty));
+		assertSame(Collections.emptyList(), cloner.deepClone(Collections.emptyList()));
+	}
+
+	@Test
+	public void listSetAndMapOf() throws Exception {
+		final Item item = new Item(1);
+		final List<Item> list = listOf(item, new Item(2));
+		final List<Item> listClone = cloner.deepClone(list);
+		assertEquals(list, listClone);
+		assertNotSame(item, listClone.get(0));
+		assertSame(list.getClass(), listClone.getClass());
+		assertFastCloned(list);
+
+		final List<String> strings = listOf("a", "b", "c");
+		assertSame(strings, cloner.deepClone(strings));
+
+		final Set<Item> set = (Set<Item>) Set.class.getMethod("of", Object[].class).invoke(null, (Object) new Item[]{item});
+		final Set<Item> setClone = cloner.deepClone(set);
+		assertEquals(set, setClone);
+		assertNotSame(item, setClone.iterator().next());
+
+		final Map<String, Item> map = (Map<String, Item>) Map.class.getMethod("of", Object.class, Object.class).invoke(null, "a", item);
+		final Map<String, Item> mapClone = cloner.deepClone(map);
+		assertEquals(map, mapClone);
+		assertNotSame(item, mapClone.get("a"));
+		assertFastCloned(map);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamToListAllowsNullsAfterCloning() throws Exception {
+		final Method toList;
+		try {
+			toList = Stream.class.getMethod("toList");
+		} catch (final NoSuchMethodException e) {
+			return; // before java 16
+		}
+		final List<Item> list = (List<Item>) toList.invoke(Stream.of(new Item(1), new Item(2)));
+		final List<Item> clone = cloner.deepClone(list);
+		assertEquals(list, clone);
+		assertNotSame(list.get(0), clone.get(0));
+		assertFalse(clone.contains(null));
+		assertEquals(-1, clone.indexOf(null));
+
+		final List<Item> withNull = (List<Item>) toList.invoke(Stream.of(new Item(1), null));
+		final List<Item> withNullClone = cloner.deepClone(withNull);
+		assertEquals(withNull, withNullClone);
+		assertEquals(1, withNullClone.indexOf(null));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> listOf(final T... elements) throws Exception {
+		return (List<T>) List.class.getMethod("of", Object[].class).invoke(null, (Object) elements);
+	}
+
+	@Test
+	public void optionals() {
+		final Optional<Item> o = Optional.of(new Item(1));
+		final Optional<Item> clone = cloner.deepClone(o);
+		assertEquals(o, clone);
+		assertNotSame(o.get(), clone.get());
+		final Optional<String> s = Optional.of("a");
+		assertSame(s, cloner.deepClone(s));
+		assertSame(Optional.empty(), cloner.deepClone(Optional.empty()));
+	}
+
+	@Test
+	public void timeTypesAndLocalesAreImmutable() {
+		final Object[] immutables = {Instant.now(), LocalDate.now(), ZonedDateTime.now(ZoneId.of("Europe/London")),
+				ZoneId.of("Europe/London"), Locale.UK};
+		final Object[] clone = cloner.deepClone(immutables);
+		for (int i = 0; i < immutables.length; i++) {
+			assertSame(immutables[i], clone[i]);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.CloneMetrics;
+import com.rits.cloning.Cloner;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestLazyClone {
+
+	public interface IPerson {
+		String getName();
+
+		void setName(String name);
+
+		List<String> getTags();
+	}
+
+	static class Person implements IPerson {
+		private String name;
+		private final List<String> tags = new ArrayList<String>();
+
+		Person(final String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(final String name) {
+			this.name = name;
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+	}
+
+	public interface IOrder {
+		Date getCreated();
+
+		ArrayList<String> getLines();
+
+		String[] getTags();
+
+		int getAndIncrement();
+
+		int getCount();
+	}
+
+	static class Order implements IOrder {
+		private final Date created = new Date(1000);
+		private final ArrayList<String> lines = new ArrayList<String>(Arrays.asList("l"));
+		private final String[] tags = {"t"};
+		private int count;
+
+		public Date getCreated() {
+			return created;
+		}
+
+		public ArrayList<String> getLines() {
+			return lines;
+		}
+
+		public String[] getTags() {
+			return tags;
+		}
+
+		public int getAndIncrement() {
+			return count++;
+		}
+
+		public int getCount() {
+			return count;
+		}
+	}
+
+	static class NoInterfaces {
+		int x = 5;
+	}
+
+	private final Cloner cloner = new Cloner();
+
+	private List<IPerson> people() {
+		final List<IPerson> l = new ArrayList<IPerson>();
+		l.add(new Person("a"));
+		l.add(new Person("b"));
+		return l;
+	}
+
+	@Test
+	public void readsTheOriginalUntilModified() {
+		final List<IPerson> l = people();
+		final List<IPerson> lazy = cloner.lazyClone(l);
+		assertTrue(Proxy.isProxyClass(lazy.getClass()));
+		assertEquals(2, lazy.size());
+		assertTrue(lazy.equals(l));
+		// get() is declared to return Object, a proxy might not be castable to the element type so the element is cloned
+		assertNotSame(l.get(0), lazy.get(0));
+		assertSame(lazy.get(0), lazy.get(0));
+		assertEquals("a", lazy.get(0).getName());
+		assertTrue(lazy.equals(l));
+	}
+
+	@Test
+	public void readingAnElementClonesOnlyTheElement() {
+		final Cloner cloner = new Cloner();
+		final CloneMetrics metrics = new CloneMetrics();
+		cloner.setCloneMetricsListener(metrics);
+		final List<IPerson> l = people();
+		final List<IPerson> lazy = cloner.lazyClone(l);
+		final IPerson first = lazy.get(0);
+		assertEquals(1, metrics.get(Person.class).getReflectivelyCloned());
+		// the tags of the element, not the list
+		assertEquals(1, metrics.get(ArrayList.class).getFastCloned());
+
+		// the clone of the list shares the element handed out
+		lazy.add(new Person("c"));
+		assertEquals(2, l.size());
+		assertSame(first, lazy.get(0));
+		assertNotSame(l.get(1), lazy.get(1));
+		assertEquals(2, metrics.get(Person.class).getReflectivelyCloned());
+		assertEquals(3, metrics.get(ArrayList.class).getFastCloned());
+	}
+
+	@Test
+	public void resultsOfInterfaceTypesAreLazyClones() {
+		final Person p = new Person("a");
+		p.getTags().add("t");
+		final IPerson lazy = cloner.lazyClone(p);
+		final List<String> tags = lazy.getTags();
+		assertTrue(Proxy.isProxyClass(tags.getClass()));
+		assertSame(tags, lazy.getTags());
+		assertEquals("t", tags.get(0));
+		tags.add("u");
+		assertEquals(1, p.getTags().size());
+		assertEquals(2, lazy.getTags().size());
+	}
+
+	@Test
+	public void modificationsAreNotSeenByTheOriginal() {
+		final List<IPerson> l = people();
+		final List<IPerson> lazy = cloner.lazyClone(l);
+		lazy.add(new Person("c"));
+		assertEquals(2, l.size());
+		assertEquals(3, lazy.size());
+		lazy.get(0).setName("x");
+		assertEquals("a", l.get(0).getName());
+		assertEquals("x", lazy.get(0).getName());
+	}
+
+	@Test
+	public void modifyingAViewCopiesTheWholeGraph() {
+		final List<IPerson> l = people();
+		final List<IPerson> lazy = cloner.lazyClone(l);
+		final IPerson first = lazy.get(0);
+		final List<String> tags = first.getTags();
+		tags.add("t");
+		assertTrue(l.get(0).getTags().isEmpty());
+		assertEquals(1, tags.size());
+		assertEquals(1, lazy.get(0).getTags().size());
+		first.setName("y");
+		assertEquals("y", lazy.get(0).getName());
+		assertEquals("a", l.get(0).getName());
+	}
+
+	@Test
+	public void maps() {
+		final Map<String, List<String>> m = new HashMap<String, List<String>>();
+		m.put("k", new ArrayList<String>());
+		final Map<String, List<String>> lazy = cloner.lazyClone(m);
+		assertTrue(lazy.containsKey("k"));
+		lazy.get("k").add("v");
+		assertTrue(m.get("k").isEmpty());
+		assertEquals("v", lazy.get("k").get(0));
+		lazy.remove("k");
+		assertTrue(m.containsKey("k"));
+		assertFalse(lazy.containsKey("k"));
+	}
+
+	@Test
+	public void immutablesAndClassesWithoutInterfaces() {
+		assertSame("s", cloner.lazyClone("s"));
+		assertNull(cloner.lazyClone(null));
+		final NoInterfaces o = new NoInterfaces();
+		final NoInterfaces clone = cloner.lazyClone(o);
+		assertNotSame(o, clone);
+		assertEquals(5, clone.x);
+	}
+
+	@Test
+	public void resultsOfClassOrArrayTypesAreCloned() {
+		final Order o = new Order();
+		final IOrder lazy = cloner.lazyClone(o);
+		assertEquals(1000, lazy.getCreated().getTime());
+		lazy.getCreated().setTime(5);
+		lazy.getLines().add("m");
+		lazy.getTags()[0] = "x";
+		assertEquals(1000, o.getCreated().getTime());
+		assertEquals(Arrays.asList("l"), o.getLines());
+		assertEquals("t", o.getTags()[0]);
+		// the results come from the clone, so changes to them are seen through the lazy clone
+		assertEquals(5, lazy.getCreated().getTime());
+		assertEquals(Arrays.asList("l", "m"), lazy.getLines());
+		assertEquals("x", lazy.getTags()[0]);
+	}
+
+	@Test
+	public void getAndMethodsModify() {
+		final Order o = new Order();
+		final IOrder lazy = cloner.lazyClone(o);
+		assertEquals(0, lazy.getAndIncrement());
+		assertEquals(1, lazy.getCount());
+		assertEquals(0, o.getCount());
+	}
+}
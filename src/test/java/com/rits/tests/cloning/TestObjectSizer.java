@@ -0,0 +1,103 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestObjectSizer {
+
+	static class Node {
+		long value;
+		Node next;
+		Object payload;
+	}
+
+	static class Service {
+		byte[] state = new byte[1024];
+	}
+
+	private final Cloner cloner = new Cloner();
+
+	@Test
+	public void shallowSizes() {
+		final long node = cloner.estimateShallowSize(new Node());
+		// header, a long and two references, aligned to 8 bytes
+		assertTrue(node >= 24 && node <= 40);
+		assertEquals(0, node % 8);
+		assertEquals(0, cloner.estimateShallowSize(null));
+		final long small = cloner.estimateShallowSize(new int[0]);
+		assertEquals(small + 400, cloner.estimateShallowSize(new int[100]), 8);
+		assertTrue(cloner.estimateShallowSize(new Object[10]) >= 40 + small);
+	}
+
+	@Test
+	public void sharedObjectsAndCyclesAreCountedOnce() {
+		final Node a = new Node();
+		final Node b = new Node();
+		a.next = b;
+		b.next = a;
+		final long node = cloner.estimateShallowSize(a);
+		assertEquals(2 * node, cloner.estimateDeepSize(a));
+
+		final long[] payload = new long[100];
+		a.payload = payload;
+		b.payload = payload;
+		assertEquals(2 * node + cloner.estimateShallowSize(payload), cloner.estimateDeepSize(a));
+	}
+
+	@Test
+	public void deepListsDontOverflowTheStack() {
+		final Node head = new Node();
+		Node n = head;
+		for (int i = 0; i < 100000; i++) {
+			n.next = new Node();
+			n = n.next;
+		}
+		assertEquals(100001 * cloner.estimateShallowSize(head), cloner.estimateDeepSize(head));
+	}
+
+	@Test
+	public void sharedObjectsAreNotCounted() {
+		final Node n = new Node();
+		final long node = cloner.estimateShallowSize(n);
+		n.payload = TestEnum.A;
+		assertEquals(node, cloner.estimateDeepSize(n));
+
+		final Service service = new Service();
+		n.payload = service;
+		assertTrue(cloner.estimateDeepSize(n) > node + 1024);
+		cloner.dontClone(Service.class);
+		assertEquals(node, cloner.estimateDeepSize(n));
+
+		final Object constant = new ArrayList<Object>();
+		cloner.registerConstant(constant);
+		n.payload = constant;
+		assertEquals(node, cloner.estimateDeepSize(n));
+	}
+
+	@Test
+	public void collectionsAndStringsGrowWithTheirContent() {
+		final List<Node> small = new ArrayList<Node>();
+		final List<Node> big = new ArrayList<Node>();
+		for (int i = 0; i < 1000; i++) {
+			if (i < 10) small.add(new Node());
+			big.add(new Node());
+		}
+		final long node = cloner.estimateShallowSize(new Node());
+		assertTrue(cloner.estimateDeepSize(big) - cloner.estimateDeepSize(small) >= 990 * node);
+
+		final Map<String, Node> m = new HashMap<String, Node>();
+		m.put("a", new Node());
+		final long one = cloner.estimateDeepSize(m);
+		m.put("b", new Node());
+		assertTrue(cloner.estimateDeepSize(m) > one + node);
+
+		assertTrue(cloner.estimateDeepSize("a longer string") > cloner.estimateDeepSize("short"));
+	}
+}
@@ -0,0 +1,139 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.IDeepCloner;
+import com.rits.cloning.IFastCloner;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestParallelCloning {
+	private static ForkJoinPool pool;
+
+	@BeforeClass
+	public static void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	static class Item {
+		int id;
+		Item shared;
+		Object[] children;
+
+		Item(final int id, final Item shared) {
+			this.id = id;
+			this.shared = shared;
+		}
+	}
+
+	private Cloner cloner() {
+		final Cloner cloner = new Cloner();
+		cloner.setParallelThreshold(16);
+		return cloner;
+	}
+
+	@Test
+	public void listOfItemsSharingAnObject() {
+		final Item shared = new Item(-1, null);
+		final ArrayList<Item> l = new ArrayList<Item>();
+		for (int i = 0; i < 1000; i++) {
+			l.add(new Item(i, shared));
+		}
+		l.add(l.get(5));
+
+		final ArrayList<Item> clone = cloner().deepCloneParallel(l, pool);
+		assertEquals(l.size(), clone.size());
+		final Item sharedClone = clone.get(0).shared;
+		assertNotSame(shared, sharedClone);
+		for (int i = 0; i < 1000; i++) {
+			assertNotSame(l.get(i), clone.get(i));
+			assertEquals(i, clone.get(i).id);
+			assertSame(sharedClone, clone.get(i).shared);
+		}
+		assertSame(clone.get(5), clone.get(1000));
+	}
+
+	@Test
+	public void hashMap() {
+		final Item shared = new Item(-1, null);
+		final HashMap<String, Item> m = new HashMap<String, Item>();
+		for (int i = 0; i < 1000; i++) {
+			m.put("k" + i, new Item(i, shared));
+		}
+		final Map<String, Item> clone = cloner().deepCloneParallel(m, pool);
+		assertEquals(m.keySet(), clone.keySet());
+		final Item sharedClone = clone.get("k0").shared;
+		for (int i = 0; i < 1000; i++) {
+			assertNotSame(m.get("k" + i), clone.get("k" + i));
+			assertEquals(i, clone.get("k" + i).id);
+			assertSame(sharedClone, clone.get("k" + i).shared);
+		}
+	}
+
+	@Test
+	public void nestedArraysWithCycles() {
+		final Item root = new Item(0, null);
+		root.children = new Object[500];
+		for (int i = 0; i < root.children.length; i++) {
+			final Item child = new Item(i, root);
+			child.children = new Object[]{root, child};
+			root.children[i] = child;
+		}
+		final Item clone = cloner().deepCloneParallel(root, pool);
+		assertNotSame(root, clone);
+		for (int i = 0; i < clone.children.length; i++) {
+			final Item child = (Item) clone.children[i];
+			assertNotSame(root.children[i], child);
+			assertSame(clone, child.shared);
+			assertSame(clone, child.children[0]);
+			assertSame(child, child.children[1]);
+		}
+	}
+
+	@Test
+	public void smallGraphsAreClonedAsUsual() {
+		final List<Object> l = new ArrayList<Object>();
+		l.add("a");
+		l.add(new Item(1, null));
+		final List<Object> clone = new Cloner().deepCloneParallel(l, pool);
+		assertSame(l.get(0), clone.get(0));
+		assertNotSame(l.get(1), clone.get(1));
+		assertNull(new Cloner().deepCloneParallel(null, pool));
+	}
+
+	static class Probe {
+	}
+
+	@Test
+	public void entriesOfEqualKeysAreKept() {
+		final Cloner cloner = cloner();
+		final int[] entries = new int[2];
+		cloner.registerFastCloner(Probe.class, new IFastCloner() {
+			public Object clone(final Object t, final IDeepCloner cloner, final Map<Object, Object> clones) {
+				entries[0] = clones.size();
+				entries[1] = clones.entrySet().size();
+				return new Probe();
+			}
+		});
+		// equal but not identical lists with equal clones
+		final List<Object> l = new ArrayList<Object>(Arrays.<Object>asList(new ArrayList<Object>(), new ArrayList<Object>(), new Probe()));
+		cloner.deepCloneParallel(l, pool);
+		// the inner lists, the outer one is registered once its fast cloner returns
+		assertEquals(2, entries[0]);
+		assertEquals(2, entries[1]);
+	}
+}
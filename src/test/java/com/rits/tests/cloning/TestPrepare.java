@@ -0,0 +1,110 @@
+package com.rits.tests.cloning;
+
+import com.rits.cloning.Cloner;
+import com.rits.cloning.IInstantiationStrategy;
+import com.rits.cloning.ObjenesisInstantiationStrategy;
+import com.rits.tests.cloning.domain.A;
+import com.rits.tests.cloning.domain.B;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TestPrepare {
+
+	static class Order {
+		Customer customer;
+		Line[] lines;
+		List<Line> more;
+		String id;
+	}
+
+	static class Customer {
+		Order lastOrder;
+		String name;
+	}
+
+	static class Line {
+		int quantity;
+	}
+
+	/**
+	 * remembers the classes prepared
+	 */
+	static class RecordingStrategy implements IInstantiationStrategy {
+		final Set<Class<?>> prepared = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+		public <T> T newInstance(final Class<T> c) {
+			return ObjenesisInstantiationStrategy.getInstance().newInstance(c);
+		}
+
+		public void prepare(final Class<?> c) {
+			prepared.add(c);
+		}
+	}
+
+	@Test
+	public void preparesTheTypesOfTheFields() {
+		final RecordingStrategy strategy = new RecordingStrategy();
+		final Cloner cloner = new Cloner(strategy);
+		cloner.prepare(Order.class);
+		// not List, String or the jdk classes
+		assertEquals(new java.util.HashSet<Class<?>>(Arrays.<Class<?>>asList(Order.class, Customer.class, Line.class)), strategy.prepared);
+
+		final Order o = new Order();
+		o.customer = new Customer();
+		o.customer.lastOrder = o;
+		final Order clone = cloner.deepClone(o);
+		assertSame(clone, clone.customer.lastOrder);
+	}
+
+	@Test
+	public void preparesInParallel() {
+		final RecordingStrategy strategy = new RecordingStrategy();
+		final Cloner cloner = new Cloner(strategy);
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			cloner.prepare(Arrays.<Class<?>>asList(Order.class, A.class, B.class), pool);
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue(strategy.prepared.containsAll(Arrays.asList(Order.class, Customer.class, Line.class, A.class, B.class)));
+	}
+
+	@Test
+	public void preparesPackages() throws Exception {
+		final RecordingStrategy strategy = new RecordingStrategy();
+		final Cloner cloner = new Cloner(strategy);
+		final List<Class<?>> classes = cloner.preparePackage("com.rits.tests.cloning.domain");
+		assertTrue(classes.containsAll(Arrays.asList(A.class, B.class)));
+		assertTrue(strategy.prepared.containsAll(Arrays.asList(A.class, B.class)));
+	}
+
+	@Test
+	public void classListsCanBeReplayed() throws Exception {
+		final Cloner cloner = new Cloner();
+		final Order o = new Order();
+		o.customer = new Customer();
+		o.lines = new Line[]{new Line()};
+		cloner.deepClone(o);
+		final StringWriter list = new StringWriter();
+		cloner.writeClassList(list);
+		assertTrue(list.toString().contains(Customer.class.getName() + "\n"));
+		assertTrue(list.toString().contains(Line[].class.getName() + "\n"));
+
+		final RecordingStrategy strategy = new RecordingStrategy();
+		final Cloner next = new Cloner(strategy);
+		final List<Class<?>> classes = next.prepareClassList(new StringReader(list + "com.example.Removed\n"));
+		assertTrue(classes.containsAll(Arrays.asList(Order.class, Customer.class, Line[].class)));
+		assertFalse(classes.toString().contains("Removed"));
+		assertTrue(strategy.prepared.containsAll(Arrays.asList(Order.class, Customer.class, Line.class)));
+	}
+}
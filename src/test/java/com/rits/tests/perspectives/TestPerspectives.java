@@ -1,6 +1,13 @@
 package com.rits.tests.perspectives;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import junit.framework.TestCase;
 
@@ -75,4 +82,49 @@ public class TestPerspectives extends TestCase
 		final OrderedProducts orderedProducts = perspectives.viewCollectionAs(new OrderedProducts(), OrderedProduct.class, null);
 		assertNull(orderedProducts);
 	}
+
+	public void testViewStreamAsIsLazy()
+	{
+		final AtomicInteger produced = new AtomicInteger();
+		final Stream<Product> products = Stream.iterate(1, i -> i + 1).map(i -> {
+			produced.incrementAndGet();
+			return new Product(i, "sku" + i, "title" + i);
+		});
+		final Iterator<OrderedProduct> ordered = perspectives.viewStreamAs(OrderedProduct.class, products).iterator();
+		assertEquals(0, produced.get());
+		final OrderedProduct first = ordered.next();
+		assertEquals(1, first.getId());
+		assertEquals("sku1", first.getSku());
+		assertEquals(2, ordered.next().getId());
+		assertEquals(2, produced.get());
+		assertNull(perspectives.viewStreamAs(OrderedProduct.class, null));
+	}
+
+	public void testViewCollectionAsInParallelKeepsTheOrder()
+	{
+		final Products products = new Products();
+		for (int i = 0; i < 10000; i++)
+		{
+			products.add(i % 3 == 0 ? new RelatedProduct(i, "sku" + i, "related") : new Product(i, "sku" + i, "title"));
+		}
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		final OrderedProducts orderedProducts;
+		try
+		{
+			orderedProducts = perspectives.viewCollectionAs(new OrderedProducts(), OrderedProduct.class, products, pool);
+		} finally
+		{
+			pool.shutdown();
+		}
+		assertEquals(products.size(), orderedProducts.size());
+		for (int i = 0; i < products.size(); i++)
+		{
+			assertEquals(i, orderedProducts.get(i).getId());
+			assertEquals(products.get(i).getTitle(), orderedProducts.get(i).getTitle());
+		}
+		final List<OrderedProduct> streamed = perspectives.viewStreamAs(OrderedProduct.class, products.parallelStream())
+				.collect(Collectors.toCollection(ArrayList::new));
+		assertEquals(orderedProducts, streamed);
+		assertNull(perspectives.viewCollectionAs(new OrderedProducts(), OrderedProduct.class, null, ForkJoinPool.commonPool()));
+	}
 }